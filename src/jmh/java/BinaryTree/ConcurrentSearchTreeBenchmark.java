@@ -0,0 +1,64 @@
+package BinaryTree;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * Read throughput of {@link ConcurrentSearchTree} as reader threads are added, with an optional writer.
+ * Run with different thread counts, for example {@code -t 1}, {@code -t 8} and {@code -t 32},
+ * to check that reads scale with the number of cores.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConcurrentSearchTreeBenchmark {
+
+    @Param({"1000000"})
+    public int size;
+
+    private ConcurrentSearchTree<Integer> tree;
+    private Integer[] keys;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        tree = new ConcurrentSearchTree<>();
+        int[] order = KeyDistribution.RANDOM.insertionOrder(size, new Random(42));
+        for (int key : order) {
+            tree.insert(key);
+        }
+        keys = SearchTreeBenchmark.boxed(order);
+    }
+
+    private Integer randomKey() {
+        return keys[ThreadLocalRandom.current().nextInt(keys.length)];
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return tree.contains(randomKey());
+    }
+
+    @Benchmark
+    public Integer successor() {
+        return tree.successor(randomKey());
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(7)
+    public boolean readWhileWriting() {
+        return tree.contains(randomKey());
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void write() {
+        Integer key = randomKey() + 1;
+        tree.insert(key);
+        tree.delete(key);
+    }
+}
@@ -0,0 +1,58 @@
+package BinaryTree;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * Write throughput of {@link DurableSearchTree} as writer threads are added.
+ * Run with different thread counts, for example {@code -t 1}, {@code -t 8} and {@code -t 32},
+ * to check that group commit shares each fsync between the writers. A linger of 0 commits as soon as
+ * the flusher thread wakes up, so only writers that arrive during the previous fsync share a batch.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DurableSearchTreeBenchmark {
+
+    @Param({"0", "1000"})
+    public int lingerMicros;
+
+    @Param({"1024"})
+    public int maxBatch;
+
+    private final AtomicInteger nextKey = new AtomicInteger();
+    private Path directory;
+    private DurableSearchTree<Integer> tree;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("durable-benchmark");
+        tree = DurableSearchTree.open(directory, KeyCodec.INT, Duration.ofNanos(lingerMicros * 1000L), maxBatch,
+                DurableSearchTree.DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        tree.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void insert() throws IOException {
+        tree.insert(nextKey.getAndIncrement());
+    }
+}
@@ -0,0 +1,61 @@
+package BinaryTree;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * Lookups in a {@link FrozenSearchTree} compared with the red-black tree it was frozen from.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FrozenSearchTreeBenchmark {
+
+    @Param({"RANDOM", "ZIPFIAN"})
+    public KeyDistribution distribution;
+
+    @Param({"1000", "1000000", "10000000"})
+    public int size;
+
+    private RedBlackTree<Integer> tree;
+    private FrozenSearchTree<Integer> frozen;
+    private Integer[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        tree = (RedBlackTree<Integer>) SearchTreeBenchmark.build(
+                SearchTreeBenchmark.TreeType.RED_BLACK, KeyDistribution.RANDOM, size);
+        frozen = tree.freeze();
+        queries = SearchTreeBenchmark.boxed(
+                distribution.queries(size, SearchTreeBenchmark.QUERY_COUNT, new Random(42)));
+    }
+
+    private Integer nextQuery() {
+        Integer key = queries[next];
+        next = (next + 1) & (SearchTreeBenchmark.QUERY_COUNT - 1);
+        return key;
+    }
+
+    @Benchmark
+    public Node<Integer> treeSearch() {
+        return tree.search(nextQuery());
+    }
+
+    @Benchmark
+    public boolean frozenContains() {
+        return frozen.contains(nextQuery());
+    }
+
+    @Benchmark
+    public Node<Integer> treeFloor() {
+        return tree.floor(nextQuery() + 1);
+    }
+
+    @Benchmark
+    public Integer frozenFloor() {
+        return frozen.floor(nextQuery() + 1);
+    }
+}
@@ -0,0 +1,90 @@
+package BinaryTree;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * Key patterns used by the benchmarks. The tree keys are the even numbers below twice the size,
+ * so odd numbers can be used as keys that are never in the tree. <br>
+ * RANDOM inserts in shuffled order and looks up uniformly random keys,
+ * SORTED inserts and looks up in increasing order,
+ * ZIPFIAN inserts in shuffled order and looks up a small hot set of keys most of the time,
+ * LOCAL inserts in shuffled order and looks up keys a few steps away from the previous one.
+ */
+public enum KeyDistribution {
+    RANDOM, SORTED, ZIPFIAN, LOCAL;
+
+    // LOCAL lookups move at most this many keys from the previous one
+    private static final int LOCAL_STEP = 8;
+
+    private static final double ZIPF_EXPONENT = 0.99;
+
+    /**
+     * @param size number of keys
+     * @param random source of randomness
+     * @return the tree's keys in the order they should be inserted
+     */
+    public int[] insertionOrder(int size, Random random) {
+        int[] keys = new int[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = 2 * i;
+        }
+        if (this != SORTED) {
+            shuffle(keys, random);
+        }
+        return keys;
+    }
+
+    /**
+     * @param size number of keys in the tree
+     * @param count number of lookups to generate
+     * @param random source of randomness
+     * @return keys to look up, all of which are in the tree
+     */
+    public int[] queries(int size, int count, Random random) {
+        int[] queries = new int[count];
+        switch (this) {
+            case SORTED:
+                for (int i = 0; i < count; i++) {
+                    queries[i] = 2 * (i % size);
+                }
+                break;
+            case ZIPFIAN:
+                // the hot keys are spread over the key space so they don't share a subtree
+                int[] ranks = insertionOrder(size, random);
+                double[] cumulative = new double[size];
+                double total = 0;
+                for (int i = 0; i < size; i++) {
+                    total += 1 / Math.pow(i + 1, ZIPF_EXPONENT);
+                    cumulative[i] = total;
+                }
+                for (int i = 0; i < count; i++) {
+                    int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+                    queries[i] = ranks[Math.min(size - 1, rank < 0 ? -rank - 1 : rank)];
+                }
+                break;
+            case LOCAL:
+                int index = random.nextInt(size);
+                for (int i = 0; i < count; i++) {
+                    index = Math.floorMod(index + random.nextInt(2 * LOCAL_STEP + 1) - LOCAL_STEP, size);
+                    queries[i] = 2 * index;
+                }
+                break;
+            default:
+                for (int i = 0; i < count; i++) {
+                    queries[i] = 2 * random.nextInt(size);
+                }
+        }
+        return queries;
+    }
+
+    private static void shuffle(int[] array, Random random) {
+        for (int i = array.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = array[i];
+            array[i] = array[j];
+            array[j] = swap;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package BinaryTree;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * Benchmarks for skewed and local lookups, comparing splay trees and finger searches with plain lookups
+ * from the root. Trees are built from shuffled keys, so the plain tree has logarithmic expected height.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LocalityBenchmark {
+
+    static final int SCAN_LENGTH = 16;
+
+    public enum Mode { PLAIN, RED_BLACK, SPLAY, PLAIN_FINGER, RED_BLACK_FINGER }
+
+    @Param({"PLAIN", "RED_BLACK", "SPLAY", "PLAIN_FINGER", "RED_BLACK_FINGER"})
+    public Mode mode;
+
+    @Param({"ZIPFIAN", "LOCAL", "RANDOM"})
+    public KeyDistribution distribution;
+
+    @Param({"1000", "100000", "10000000"})
+    public int size;
+
+    private SearchTree<Integer> searchTree;
+    private Integer[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        switch (mode) {
+            case PLAIN:
+            case PLAIN_FINGER:
+                searchTree = new SearchTree<>();
+                break;
+            case SPLAY:
+                searchTree = new SplayTree<>();
+                break;
+            default:
+                searchTree = new RedBlackTree<>();
+        }
+        for (int key : distribution.insertionOrder(size, new Random(42))) {
+            searchTree.insert(key);
+        }
+        if (mode == Mode.PLAIN_FINGER || mode == Mode.RED_BLACK_FINGER) {
+            searchTree.enableFingerSearch();
+        }
+        queries = SearchTreeBenchmark.boxed(distribution.queries(size, SearchTreeBenchmark.QUERY_COUNT,
+                new Random(42)));
+    }
+
+    private Integer nextQuery() {
+        Integer key = queries[next];
+        next = (next + 1) & (SearchTreeBenchmark.QUERY_COUNT - 1);
+        return key;
+    }
+
+    @Benchmark
+    public Node<Integer> search() {
+        return searchTree.search(nextQuery());
+    }
+
+    @Benchmark
+    public Node<Integer> ceiling() {
+        return searchTree.ceiling(nextQuery() + 1);
+    }
+
+    /** Scans a few keys from each lookup, like a paged range query. */
+    @Benchmark
+    public void rangeScan(Blackhole blackhole) {
+        Integer from = nextQuery();
+        int scanned = 0;
+        for (Integer key : searchTree.tailSet(from)) {
+            blackhole.consume(key);
+            if (++scanned == SCAN_LENGTH) {
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package BinaryTree;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * Benchmarks for the single-key operations of the search trees, and for batches of lookups.
+ * Each trial builds a tree by inserting keys in the order given by the distribution,
+ * and every lookup comes from a precomputed list so that generating keys isn't measured. <br>
+ * Inserting sorted keys into a plain tree takes quadratic time, so that combination refuses to build
+ * past {@link #MAX_DEGENERATE_SIZE} keys instead of hanging the run.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchTreeBenchmark {
+
+    static final int MAX_DEGENERATE_SIZE = 100_000;
+    static final int QUERY_COUNT = 1 << 20;
+    static final int WALK_LENGTH = 16;
+    static final int BATCH_SIZE = 256;
+
+    public enum TreeType { PLAIN, RED_BLACK }
+
+    @Param({"PLAIN", "RED_BLACK"})
+    public TreeType tree;
+
+    @Param({"RANDOM", "SORTED", "ZIPFIAN"})
+    public KeyDistribution distribution;
+
+    @Param({"1000", "100000", "10000000"})
+    public int size;
+
+    /** Capacity of the tree's node pool, 0 for no pool. Run with -p nodePool=1024 to compare allocation rates. */
+    @Param({"0"})
+    public int nodePool;
+
+    private SearchTree<Integer> searchTree;
+    private Integer[] queries;
+    private Integer[] missing; // keys next to the queries that are never in the tree
+    private int next;
+    private final Integer[] batch = new Integer[BATCH_SIZE];
+    @SuppressWarnings("unchecked")
+    private final Node<Integer>[] results = (Node<Integer>[]) new Node<?>[BATCH_SIZE];
+
+    @Setup(Level.Trial)
+    public void setup() {
+        searchTree = build(tree, distribution, size);
+        if (nodePool > 0) {
+            searchTree.enableNodePool(nodePool);
+        }
+        int[] keys = distribution.queries(size, QUERY_COUNT, new Random(42));
+        queries = boxed(keys);
+        for (int i = 0; i < keys.length; i++) {
+            keys[i]++;
+        }
+        missing = boxed(keys);
+    }
+
+    static SearchTree<Integer> build(TreeType tree, KeyDistribution distribution, int size) {
+        if (tree == TreeType.PLAIN && distribution == KeyDistribution.SORTED && size > MAX_DEGENERATE_SIZE) {
+            throw new IllegalStateException("sorted inserts into a plain tree are quadratic, skipping size " + size);
+        }
+        SearchTree<Integer> searchTree = tree == TreeType.PLAIN ? new SearchTree<>() : new RedBlackTree<>();
+        for (int key : distribution.insertionOrder(size, new Random(42))) {
+            searchTree.insert(key);
+        }
+        return searchTree;
+    }
+
+    static Integer[] boxed(int[] keys) {
+        Integer[] boxed = new Integer[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            boxed[i] = keys[i];
+        }
+        return boxed;
+    }
+
+    private Integer nextQuery() {
+        Integer key = queries[next];
+        next = (next + 1) & (QUERY_COUNT - 1);
+        return key;
+    }
+
+    private Integer[] nextBatch() {
+        System.arraycopy(queries, next, batch, 0, BATCH_SIZE);
+        next = (next + BATCH_SIZE) & (QUERY_COUNT - 1);
+        return batch;
+    }
+
+    @Benchmark
+    public Node<Integer> search() {
+        return searchTree.search(nextQuery());
+    }
+
+    /** Looks up a batch of keys one at a time, to compare with {@link #searchAll()}. */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void searchEach(Blackhole blackhole) {
+        for (Integer key : nextBatch()) {
+            blackhole.consume(searchTree.search(key));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public Node<Integer>[] searchAll() {
+        searchTree.searchAll(nextBatch(), results);
+        return results;
+    }
+
+    /** Inserts a key next to an existing one and deletes it again, so the tree keeps its shape. */
+    @Benchmark
+    public Node<Integer> insertAndDelete() {
+        Node<Integer> node = searchTree.insert(missing[next]);
+        next = (next + 1) & (QUERY_COUNT - 1);
+        searchTree.delete(node);
+        return node;
+    }
+
+    @Benchmark
+    public void successorWalk(Blackhole blackhole) {
+        Node<Integer> node = searchTree.search(nextQuery());
+        for (int i = 0; i < WALK_LENGTH && node != null; i++) {
+            node = searchTree.successor(node);
+            blackhole.consume(node);
+        }
+    }
+
+    @Benchmark
+    public int rank() {
+        return searchTree.rank(nextQuery());
+    }
+
+    @Benchmark
+    public int height() {
+        return searchTree.height();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public SearchTree<Integer> build() {
+        return build(tree, distribution, size);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public SearchTree<Integer> fromSorted() {
+        List<Integer> keys = searchTree.sorted();
+        return tree == TreeType.PLAIN ? SearchTree.fromSorted(keys) : RedBlackTree.fromSorted(keys);
+    }
+}
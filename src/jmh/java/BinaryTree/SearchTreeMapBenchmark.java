@@ -0,0 +1,82 @@
+package BinaryTree;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * Compares {@link SearchTreeMap} with {@link TreeMap} for get, put and iteration throughput.
+ * Run with {@code -prof gc}: the {@code gc.alloc.rate.norm} of the build benchmark divided by the size
+ * is the number of bytes allocated per entry.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchTreeMapBenchmark {
+
+    public enum MapType { SEARCH_TREE_MAP, TREE_MAP }
+
+    @Param({"SEARCH_TREE_MAP", "TREE_MAP"})
+    public MapType map;
+
+    @Param({"1000", "1000000"})
+    public int size;
+
+    private NavigableMap<Integer, Integer> filled;
+    private Integer[] keys;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        keys = SearchTreeBenchmark.boxed(KeyDistribution.RANDOM.insertionOrder(size, new Random(42)));
+        filled = build();
+    }
+
+    private NavigableMap<Integer, Integer> create() {
+        return map == MapType.TREE_MAP ? new TreeMap<>() : new SearchTreeMap<>();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 5)
+    public NavigableMap<Integer, Integer> build() {
+        NavigableMap<Integer, Integer> result = create();
+        for (Integer key : keys) {
+            result.put(key, key);
+        }
+        return result;
+    }
+
+    private Integer nextKey() {
+        Integer key = keys[next];
+        next = next + 1 == keys.length ? 0 : next + 1;
+        return key;
+    }
+
+    @Benchmark
+    public Integer get() {
+        return filled.get(nextKey());
+    }
+
+    /** Overwrites the value of an existing key. */
+    @Benchmark
+    public Integer put() {
+        Integer key = nextKey();
+        return filled.put(key, key);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long iterate() {
+        long sum = 0;
+        for (Map.Entry<Integer, Integer> entry : filled.entrySet()) {
+            sum += entry.getValue();
+        }
+        return sum;
+    }
+}
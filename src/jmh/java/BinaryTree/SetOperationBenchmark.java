@@ -0,0 +1,84 @@
+package BinaryTree;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * Benchmarks for merging red-black trees with the join-based set operations,
+ * compared with inserting the smaller tree's keys into the larger one.
+ * The set operations use up their input trees, so each invocation builds fresh ones, which isn't measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SetOperationBenchmark {
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"1000", "100000", "1000000"})
+    public int otherSize;
+
+    private int[] keys;
+    private int[] otherKeys;
+    private RedBlackTree<Integer> tree;
+    private RedBlackTree<Integer> other;
+
+    @Setup(Level.Trial)
+    public void setupKeys() {
+        Random random = new Random(42);
+        keys = random.ints(size, 0, 4 * size).distinct().toArray();
+        otherKeys = random.ints(otherSize, 0, 4 * size).distinct().toArray();
+    }
+
+    @Setup(Level.Invocation)
+    public void setupTrees() {
+        tree = build(keys);
+        other = build(otherKeys);
+    }
+
+    private static RedBlackTree<Integer> build(int[] keys) {
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        for (int key : keys) {
+            tree.insert(key);
+        }
+        return tree;
+    }
+
+    @Benchmark
+    public RedBlackTree<Integer> union() {
+        return RedBlackTree.union(tree, other);
+    }
+
+    @Benchmark
+    public RedBlackTree<Integer> intersection() {
+        return RedBlackTree.intersection(tree, other);
+    }
+
+    @Benchmark
+    public RedBlackTree<Integer> difference() {
+        return RedBlackTree.difference(tree, other);
+    }
+
+    @Benchmark
+    public RedBlackTree<Integer> split() {
+        tree.split(2 * size);
+        return tree;
+    }
+
+    /** The old way to merge, inserting every key of the other tree that isn't already there. */
+    @Benchmark
+    public RedBlackTree<Integer> insertAll() {
+        for (Integer key : other.sorted()) {
+            if (tree.search(key) == null) {
+                tree.insert(key);
+            }
+        }
+        return tree;
+    }
+}
@@ -0,0 +1,116 @@
+package BinaryTree;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * Benchmarks for red-black trees of URL-like string keys, which all begin with the same scheme and are spread over
+ * a fixed number of hosts, so comparing two keys reads past the common beginning before finding a difference.
+ * The orderings compare natural order against {@link PrefixComparator}s that cache a prefix of each key in its node,
+ * with and without skipping the scheme, and against the same keys as UTF-8 byte arrays ordered by
+ * {@link PrefixComparator#BYTES}, whose prefixes always hold the scheme and so never tell two keys apart.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StringKeyBenchmark {
+
+    static final int QUERY_COUNT = 1 << 20;
+    static final String SCHEME = "https://";
+
+    public enum Ordering {
+        NATURAL(null), COMPARATOR(Comparator.naturalOrder()),
+        PREFIX(PrefixComparator.STRINGS), SCHEME_PREFIX(PrefixComparator.strings(SCHEME)),
+        BYTES(PrefixComparator.BYTES);
+
+        private final Comparator<?> comparator;
+
+        Ordering(Comparator<?> comparator) {
+            this.comparator = comparator;
+        }
+    }
+
+    @Param({"NATURAL", "COMPARATOR", "PREFIX", "SCHEME_PREFIX", "BYTES"})
+    public Ordering ordering;
+
+    @Param({"1000", "1000000"})
+    public int size;
+
+    @Param({"10", "10000"})
+    public int hosts;
+
+    // String keys, or byte[] keys for the BYTES ordering
+    private RedBlackTree<Object> searchTree;
+    private Object[] queries;
+    private Object[] missing; // keys next to the queries that are never in the tree
+    private int next;
+
+    @SuppressWarnings("unchecked")
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        String[] names = new String[hosts];
+        for (int i = 0; i < hosts; i++) {
+            names[i] = word(random, 4, 12) + (random.nextBoolean() ? ".com" : ".org");
+        }
+        searchTree = ordering.comparator == null ? new RedBlackTree<>()
+                : new RedBlackTree<>((Comparator<Object>) ordering.comparator);
+        String[] keys = new String[size];
+        for (int i = 0; i < size; i++) {
+            do {
+                keys[i] = url(random, names);
+            } while (searchTree.search(key(keys[i])) != null);
+            searchTree.insert(key(keys[i]));
+        }
+        queries = new Object[QUERY_COUNT];
+        missing = new Object[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            // copies, so that equal keys are compared character by character instead of by reference
+            String query = keys[random.nextInt(size)];
+            queries[i] = key(new String(query));
+            missing[i] = key(query + "#");
+        }
+    }
+
+    /** @return a URL as a key for the ordering */
+    private Object key(String url) {
+        return ordering == Ordering.BYTES ? url.getBytes(StandardCharsets.UTF_8) : url;
+    }
+
+    private static String url(Random random, String[] hosts) {
+        StringBuilder url = new StringBuilder(SCHEME).append(hosts[random.nextInt(hosts.length)]).append('/');
+        int segments = 1 + random.nextInt(3);
+        for (int i = 0; i < segments; i++) {
+            url.append(word(random, 3, 10)).append('/');
+        }
+        return url.toString();
+    }
+
+    private static String word(Random random, int minLength, int maxLength) {
+        char[] word = new char[minLength + random.nextInt(maxLength - minLength + 1)];
+        for (int i = 0; i < word.length; i++) {
+            word[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(word);
+    }
+
+    @Benchmark
+    public Node<Object> search() {
+        Node<Object> node = searchTree.search(queries[next]);
+        next = (next + 1) & (QUERY_COUNT - 1);
+        return node;
+    }
+
+    /** Inserts a key next to an existing one and deletes it again, so the tree keeps its shape. */
+    @Benchmark
+    public Node<Object> insertAndDelete() {
+        Node<Object> node = searchTree.insert(missing[next]);
+        next = (next + 1) & (QUERY_COUNT - 1);
+        searchTree.delete(node);
+        return node;
+    }
+}
@@ -0,0 +1,95 @@
+package BinaryTree;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * Benchmarks for the whole-tree procedures: traversals, streams, parallel aggregates,
+ * rebuilding from traversal lists and printing.
+ * Run the aggregates with -t or different core counts to see how they scale.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TraversalBenchmark {
+
+    @Param({"PLAIN", "RED_BLACK"})
+    public SearchTreeBenchmark.TreeType tree;
+
+    @Param({"RANDOM", "SORTED"})
+    public KeyDistribution distribution;
+
+    @Param({"1000", "100000", "10000000"})
+    public int size;
+
+    private SearchTree<Integer> searchTree;
+    private List<Integer> preorder;
+    private List<Integer> inorder;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        searchTree = SearchTreeBenchmark.build(tree, distribution, size);
+        preorder = GeneralProcedures.preorder(searchTree.root());
+        inorder = GeneralProcedures.inorder(searchTree.root());
+    }
+
+    @Benchmark
+    public List<Integer> preorder() {
+        return GeneralProcedures.preorder(searchTree.root());
+    }
+
+    @Benchmark
+    public List<Integer> inorder() {
+        return GeneralProcedures.inorder(searchTree.root());
+    }
+
+    @Benchmark
+    public List<Integer> postorder() {
+        return GeneralProcedures.postorder(searchTree.root());
+    }
+
+    @Benchmark
+    public long inorderIterator() {
+        long sum = 0;
+        for (Iterator<Integer> iterator = GeneralProcedures.inorderIterator(searchTree.root()); iterator.hasNext(); ) {
+            sum += iterator.next();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long parallelStream() {
+        return searchTree.stream().parallel().mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public int height() {
+        return searchTree.height();
+    }
+
+    @Benchmark
+    public long reduce() {
+        return ParallelProcedures.reduce(searchTree.root(), 0L, (sum, key) -> sum + key, Long::sum);
+    }
+
+    @Benchmark
+    public void validate() {
+        searchTree.validate();
+    }
+
+    @Benchmark
+    public Node<Integer> createFromLists() {
+        return GeneralProcedures.createFromLists(preorder, inorder);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public String printTree() {
+        return searchTree.toString();
+    }
+}
@@ -0,0 +1,381 @@
+import BinaryTree.GeneralProcedures;
+import BinaryTree.Node;
+import BinaryTree.SearchTree;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * Runs InteractiveTree command files in batch, for files with millions of commands. <br>
+ * The input file is memory-mapped and parsed directly from its bytes, with no strings or argument lists per line.
+ * The commands and messages are the same as InteractiveTree's, except that any int can be inserted
+ * and there is no prompt. Output is buffered and only flushed at the end.
+ * A summary of the operations per second is printed to standard error at the end. <br>
+ * With bulk inserts enabled, runs of consecutive inserts are sorted and added together, rebuilding a balanced tree
+ * when the run is large compared to the tree. The messages stay the same, but tree shapes and search depths then
+ * differ from inserting one at a time.
+ */
+public class BatchTree {
+
+    // input is mapped in windows of this many bytes, so files over 2GB work too
+    private static final long WINDOW_SIZE = 1L << 30;
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+    // runs of inserts at least this fraction of the tree size rebuild the tree instead of inserting one at a time
+    private static final int REBUILD_DIVISOR = 8;
+    private static final String PARSE_ERROR = "Could not parse integer";
+    private static final String DUPLICATE_ERROR = "Insert failed: element already present in tree";
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final PrintWriter output;
+    private final boolean bulkInserts;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int position; // parsing position within the window
+    private int lineEnd;
+    private int nextStart; // start of the next line within the window
+    private int parsed; // the last integer parsed
+
+    private SearchTree<Integer> tree = new SearchTree<>();
+    private List<Integer> temp = null; // used for the C command
+    private int[] pending = new int[16]; // inserts waiting to be added in bulk
+    private int pendingCount;
+    private long commands;
+    private long inserts;
+    private long deletes;
+    private long searches;
+
+    private BatchTree(FileChannel channel, PrintWriter output, boolean bulkInserts) throws IOException {
+        this.channel = channel;
+        this.fileSize = channel.size();
+        this.output = output;
+        this.bulkInserts = bulkInserts;
+        this.window = map(0);
+    }
+
+    /**
+     * Runs a command file in batch.
+     * @param args Optionally --bulk-inserts, then an input file path and optionally an output file path.
+     */
+    public static void main(String[] args) {
+        boolean bulkInserts = args.length > 0 && args[0].equals("--bulk-inserts");
+        int first = bulkInserts ? 1 : 0;
+        if (args.length <= first) {
+            System.out.println("Batch mode needs an input file: [--bulk-inserts] <input> [output]");
+            return;
+        }
+        try (OutputStream outputMethod = args.length > first + 1 ? new FileOutputStream(args[first + 1]) : null) {
+            Writer writer = new OutputStreamWriter(outputMethod == null ? System.out : outputMethod);
+            PrintWriter output = new PrintWriter(new BufferedWriter(writer, OUTPUT_BUFFER_SIZE));
+            batchTree(Paths.get(args[first]), output, bulkInserts);
+        } catch (IOException e) {
+            System.out.println("Issue using files supplied through command line arguments: ");
+            System.out.println(e.getMessage());
+            System.out.println("Exiting program...");
+        }
+    }
+
+    /**
+     * Runs the commands in a file, then flushes the output and prints a summary to standard error.
+     * @param input file with tree commands on separate lines
+     * @param output where the program's output is sent
+     * @param bulkInserts whether to group consecutive inserts
+     * @throws IOException if reading the file fails
+     */
+    public static void batchTree(Path input, PrintWriter output, boolean bulkInserts) throws IOException {
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            BatchTree batch = new BatchTree(channel, output, bulkInserts);
+            long start = System.nanoTime();
+            batch.run();
+            output.flush();
+            long nanos = Math.max(1, System.nanoTime() - start);
+            System.err.printf("Ran %d commands in %d ms (%.0f ops/sec): %d inserts, %d deletes, %d searches%n",
+                    batch.commands, nanos / 1_000_000, batch.commands * 1e9 / nanos,
+                    batch.inserts, batch.deletes, batch.searches);
+        }
+    }
+
+    private void run() throws IOException {
+        while (nextLine()) {
+            skipSpaces();
+            if (position == lineEnd) {
+                continue;
+            }
+            char command = Character.toUpperCase((char) window.get(position));
+            while (position < lineEnd && !isSpace(window.get(position))) { // the rest of the first token is ignored
+                position++;
+            }
+            commands++;
+            if (command != 'I') {
+                flushInserts();
+            }
+            if (temp != null && command != 'C') {
+                output.println("Expected second line, canceling C command");
+                temp = null;
+            }
+            switch (command) {
+                case 'I': // insert
+                    inserts++;
+                    if (!parseInt()) {
+                        flushInserts();
+                        output.println(PARSE_ERROR);
+                    } else if (bulkInserts) {
+                        if (pendingCount == pending.length) {
+                            pending = Arrays.copyOf(pending, pendingCount * 2);
+                        }
+                        pending[pendingCount++] = parsed;
+                    } else {
+                        insert(parsed);
+                    }
+                    break;
+                case 'D': // delete
+                    deletes++;
+                    if (!parseInt()) {
+                        output.println(PARSE_ERROR);
+                        break;
+                    }
+                    try {
+                        tree.delete(tree.search(parsed));
+                        output.print("Deleted ");
+                        output.println(parsed);
+                    } catch (RuntimeException e) {
+                        output.println(e.getMessage());
+                    }
+                    break;
+                case 'S': // search
+                    searches++;
+                    if (!parseInt()) {
+                        output.println(PARSE_ERROR);
+                        break;
+                    }
+                    Node<Integer> node = tree.search(parsed);
+                    if (node == null) {
+                        output.print("Could not find ");
+                        output.println(parsed);
+                    } else {
+                        output.print("Depth of ");
+                        output.print(parsed);
+                        output.print(" is ");
+                        output.println(node.getData());
+                    }
+                    break;
+                case 'P': // print
+                    GeneralProcedures.render(tree.root(), 4, output);
+                    output.println();
+                    if (tree.height() > 4) {
+                        output.println("Lower levels hidden...");
+                    }
+                    break;
+                case 'R': // preorder
+                    printList("Preorder list: ", GeneralProcedures.preorderIterator(tree.root()));
+                    break;
+                case 'N': // inorder
+                    printList("Inorder list: ", GeneralProcedures.inorderIterator(tree.root()));
+                    break;
+                case 'O': // postorder
+                    printList("Postorder list: ", GeneralProcedures.postorderIterator(tree.root()));
+                    break;
+                case 'C': // create from inorder and preorder
+                    create();
+                    break;
+                case 'E':
+                    output.println("Exiting interactive tree...");
+                    return;
+                default:
+                    for (String str : InteractiveTree.MENU) {
+                        output.println(str);
+                    }
+            }
+        }
+        flushInserts();
+    }
+
+    private void insert(int value) {
+        try {
+            tree.insert(value);
+            output.print("Inserted ");
+            output.println(value);
+        } catch (RuntimeException e) {
+            output.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Adds the pending inserts to the tree, printing their messages in their original order.
+     * Large runs are sorted together with the tree's keys and rebuilt into a balanced tree in linear time.
+     */
+    private void flushInserts() {
+        int count = pendingCount;
+        pendingCount = 0;
+        if (count == 0) {
+            return;
+        }
+        if ((long) count * REBUILD_DIVISOR < tree.size()) {
+            for (int i = 0; i < count; i++) {
+                insert(pending[i]);
+            }
+            return;
+        }
+        // sorting keys paired with their positions makes the first of any repeated keys win, as it would one by one
+        long[] sorted = new long[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = (long) pending[i] << 32 | i;
+        }
+        Arrays.sort(sorted);
+        boolean[] failed = new boolean[count];
+        List<Integer> keys = new ArrayList<>(tree.size() + count);
+        Iterator<Integer> existing = GeneralProcedures.inorderIterator(tree.root());
+        Integer next = existing.hasNext() ? existing.next() : null;
+        for (int i = 0; i < count; i++) {
+            int key = (int) (sorted[i] >> 32);
+            while (next != null && next < key) {
+                keys.add(next);
+                next = existing.hasNext() ? existing.next() : null;
+            }
+            if ((next != null && next == key) || (i > 0 && (int) (sorted[i - 1] >> 32) == key)) {
+                failed[(int) sorted[i]] = true;
+            } else {
+                keys.add(key);
+            }
+        }
+        while (next != null) {
+            keys.add(next);
+            next = existing.hasNext() ? existing.next() : null;
+        }
+        tree = SearchTree.fromSorted(keys);
+        for (int i = 0; i < count; i++) {
+            if (failed[i]) {
+                output.println(DUPLICATE_ERROR);
+            } else {
+                output.print("Inserted ");
+                output.println(pending[i]);
+            }
+        }
+    }
+
+    private void create() {
+        List<Integer> arr = new ArrayList<>();
+        skipSpaces();
+        while (position < lineEnd) {
+            if (!parseInt()) {
+                output.println(PARSE_ERROR);
+                temp = null;
+                output.println("Exiting C command");
+                return;
+            }
+            arr.add(parsed);
+            skipSpaces();
+        }
+        if (temp == null) {
+            temp = arr;
+            return;
+        }
+        try {
+            GeneralProcedures.render(GeneralProcedures.createFromLists(temp, arr), 4, output);
+            output.println();
+        } catch (IOException | RuntimeException e) {
+            output.println(e.getMessage());
+            output.println("Exiting C command");
+        }
+        temp = null;
+    }
+
+    private void printList(String prefix, Iterator<Integer> keys) {
+        output.print(prefix);
+        output.print('[');
+        while (keys.hasNext()) {
+            output.print(keys.next().intValue());
+            if (keys.hasNext()) {
+                output.print(", ");
+            }
+        }
+        output.println(']');
+    }
+
+    /**
+     * Moves to the next line, mapping the next window of the file when the line runs past the current one.
+     * @return whether there was another line
+     * @throws IOException if mapping fails
+     */
+    private boolean nextLine() throws IOException {
+        int start = nextStart;
+        if (windowStart + start >= fileSize) {
+            return false;
+        }
+        int end = findNewline(start);
+        if (end < 0 && windowStart + window.limit() < fileSize) {
+            window = map(windowStart + start);
+            start = 0;
+            end = findNewline(0);
+            if (end < 0 && windowStart + window.limit() < fileSize) {
+                throw new IOException("Line is too long");
+            }
+        }
+        position = start;
+        lineEnd = end < 0 ? window.limit() : end;
+        nextStart = lineEnd + 1;
+        return true;
+    }
+
+    private int findNewline(int from) {
+        for (int i = from; i < window.limit(); i++) {
+            if (window.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private MappedByteBuffer map(long start) throws IOException {
+        windowStart = start;
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_SIZE, fileSize - start));
+    }
+
+    /**
+     * Parses an integer token at the current position into parsed.
+     * @return false if the token is missing, not a number, or out of range
+     */
+    private boolean parseInt() {
+        skipSpaces();
+        boolean negative = false;
+        if (position < lineEnd && (window.get(position) == '-' || window.get(position) == '+')) {
+            negative = window.get(position) == '-';
+            position++;
+        }
+        int start = position;
+        long value = 0;
+        while (position < lineEnd && !isSpace(window.get(position))) {
+            int digit = window.get(position) - '0';
+            if (digit < 0 || digit > 9 || value > Integer.MAX_VALUE) {
+                return false;
+            }
+            value = value * 10 + digit;
+            position++;
+        }
+        value = negative ? -value : value;
+        if (position == start || value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            return false;
+        }
+        parsed = (int) value;
+        return true;
+    }
+
+    private void skipSpaces() {
+        while (position < lineEnd && isSpace(window.get(position))) {
+            position++;
+        }
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+}
@@ -0,0 +1,34 @@
+package BinaryTree;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * The unsigned lexicographic order of byte arrays, with the first eight bytes as the prefix,
+ * see {@link PrefixComparator#BYTES}. A shorter array that is the start of a longer one comes first.
+ */
+final class ByteArrayPrefixComparator implements PrefixComparator<byte[]> {
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    @Override
+    public long prefix(byte[] key) {
+        if (key.length >= Long.BYTES) {
+            return (long) LONGS.get(key, 0);
+        }
+        // missing bytes count as 0, which keeps the order since a shorter key is less on a tie
+        long prefix = 0;
+        for (int i = 0; i < key.length; i++) {
+            prefix |= (key[i] & 0xffL) << (8 * (Long.BYTES - 1 - i));
+        }
+        return prefix;
+    }
+
+    @Override
+    public int compare(byte[] first, byte[] second) {
+        return Arrays.compareUnsigned(first, second);
+    }
+}
@@ -0,0 +1,233 @@
+package BinaryTree;
+
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * A thread-safe binary search tree, backed by a {@link RedBlackTree}.
+ * Writers are serialized by a {@link StampedLock}. Readers don't take the lock at all:
+ * they walk the tree optimistically and then check the lock's version to make sure no writer ran in the meantime.
+ * Only when a write did overlap does the reader retry while holding the read lock.
+ * Readers never write to the nodes, so they don't contend with each other. <br>
+ * Since nodes can be changed by other threads, this class works with keys instead of handing out nodes.
+ * Supports search, minimum, maximum, predecessor, successor, insert, delete.
+ * @param <T> the key type of the tree
+ */
+public class ConcurrentSearchTree<T extends Comparable<T>> {
+
+    // readers check that the tree is still unchanged every this many steps, so a walk over a tree that is being
+    // restructured can't go on forever
+    private static final int VALIDATE_MASK = 63;
+    // returned by a walk when it noticed a concurrent write
+    private static final Object RETRY = new Object();
+
+    private static final int EXACT = 0;
+    private static final int FIRST = 1;
+    private static final int LAST = 2;
+    private static final int LOWER = 3;
+    private static final int HIGHER = 4;
+
+    private final RedBlackTree<T> tree;
+    private final StampedLock lock = new StampedLock();
+
+    /** Creates an empty tree. */
+    public ConcurrentSearchTree() {
+        this(new RedBlackTree<>());
+    }
+
+    /**
+     * Creates a tree around existing nodes, such as ones loaded from a snapshot.
+     * @param tree tree that from now on is only used through this one
+     */
+    ConcurrentSearchTree(RedBlackTree<T> tree) {
+        this.tree = tree;
+    }
+
+    /**
+     * @param key key to search for
+     * @return whether the key is in the tree
+     */
+    public boolean contains(T key) {
+        return read(key, EXACT) != null;
+    }
+
+    /**
+     * Finds the minimum key of the tree.
+     * Throws a runtime exception if the tree is empty.
+     * @return minimum key
+     */
+    public T minimum() {
+        T key = read(null, FIRST);
+        if (key == null) {
+            throw new RuntimeException("Get minimum failed: tree is empty");
+        }
+        return key;
+    }
+
+    /**
+     * Finds the maximum key of the tree.
+     * Throws a runtime exception if the tree is empty.
+     * @return maximum key
+     */
+    public T maximum() {
+        T key = read(null, LAST);
+        if (key == null) {
+            throw new RuntimeException("Get maximum failed: tree is empty");
+        }
+        return key;
+    }
+
+    /**
+     * Finds the largest key less than a key, the key doesn't need to be in the tree.
+     * @param key key to start from
+     * @return predecessor of the key or null if none exists
+     */
+    public T predecessor(T key) {
+        return read(key, LOWER);
+    }
+
+    /**
+     * Finds the smallest key greater than a key, the key doesn't need to be in the tree.
+     * @param key key to start from
+     * @return successor of the key or null if none exists
+     */
+    public T successor(T key) {
+        return read(key, HIGHER);
+    }
+
+    /**
+     * Inserts a key into the tree.
+     * Throws a runtime exception if the key already exists.
+     * @param key the key to be added
+     */
+    public void insert(T key) {
+        long stamp = lock.writeLock();
+        try {
+            tree.insert(key);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Deletes a key from the tree.
+     * Throws a runtime exception if the key does not exist.
+     * @param key key to be deleted
+     */
+    public void delete(T key) {
+        long stamp = lock.writeLock();
+        try {
+            tree.delete(tree.search(key));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** @return the size of the tree */
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        int size = tree.size();
+        if (lock.validate(stamp)) {
+            return size;
+        }
+        stamp = lock.readLock();
+        try {
+            return tree.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /** @return a sorted list of the keys in the tree, taken while holding the read lock */
+    public List<T> sorted() {
+        long stamp = lock.readLock();
+        try {
+            return tree.sorted();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Runs a walk optimistically, falling back to the read lock if a write overlapped it.
+     * @param key key for the walk
+     * @param mode type of walk
+     * @return result of the walk
+     */
+    @SuppressWarnings("unchecked")
+    private T read(T key, int mode) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                Object result = walk(key, mode, stamp);
+                if (result != RETRY && lock.validate(stamp)) {
+                    return (T) result;
+                }
+            } catch (RuntimeException e) {
+                // the walk saw a half-finished write, retry while locked
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return (T) walk(key, mode, 0);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Walks down from the root without writing anything.
+     * @param key key for the walk, unused for the first and last walks
+     * @param mode type of walk
+     * @param stamp optimistic stamp to validate against, 0 if the read lock is held
+     * @return the matching key, null if none exists, or RETRY if a concurrent write was noticed
+     */
+    private Object walk(T key, int mode, long stamp) {
+        T best = null;
+        Node<T> node = tree.root();
+        int steps = 0;
+        while (node != null) {
+            if (stamp != 0 && (++steps & VALIDATE_MASK) == 0 && !lock.validate(stamp)) {
+                return RETRY;
+            }
+            T nodeKey = node.getKey();
+            if (nodeKey == null) { // only possible when the node hasn't been fully published yet
+                return RETRY;
+            }
+            switch (mode) {
+                case FIRST:
+                    best = nodeKey;
+                    node = node.getLeft();
+                    break;
+                case LAST:
+                    best = nodeKey;
+                    node = node.getRight();
+                    break;
+                case LOWER:
+                    if (key.compareTo(nodeKey) > 0) {
+                        best = nodeKey;
+                        node = node.getRight();
+                    } else {
+                        node = node.getLeft();
+                    }
+                    break;
+                case HIGHER:
+                    if (key.compareTo(nodeKey) < 0) {
+                        best = nodeKey;
+                        node = node.getLeft();
+                    } else {
+                        node = node.getRight();
+                    }
+                    break;
+                default:
+                    int comparison = key.compareTo(nodeKey);
+                    if (comparison == 0) {
+                        return nodeKey;
+                    }
+                    node = comparison < 0 ? node.getLeft() : node.getRight();
+            }
+        }
+        return best;
+    }
+}
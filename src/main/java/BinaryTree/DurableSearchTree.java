@@ -0,0 +1,625 @@
+package BinaryTree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * A thread-safe search tree whose inserts and deletes survive crashes, backed by a {@link ConcurrentSearchTree}
+ * and a directory holding a snapshot of the keys and an append-only log of the operations since. <br>
+ * Writers apply their change, append a record to a buffer, and wait until a background thread has written and
+ * forced the record to disk. The background thread gathers the records of concurrent writers into one write and
+ * one fsync, waiting up to a linger time for more records unless a batch fills up first.
+ * A change can be seen by readers shortly before it is durable, but a write doesn't return until it is. <br>
+ * When the log grows past a threshold, the writers pause while the keys are copied and a new log is started,
+ * and then a {@link TreeSnapshot} of the copy is written in the background, after which older files are deleted.
+ * Opening the directory loads the newest complete snapshot and replays the logs after it,
+ * dropping a record at the end of the newest log that was only partly written when the process died.
+ * Any other damaged record stops the open instead, since the records after it would be lost. <br>
+ * Files are named snapshot-N and log-N, where log-N holds the operations after snapshot-N.
+ * Each log starts with a magic number and version, and each record holds its length, the operation,
+ * the encoded key and a CRC32C checksum.
+ * @param <T> the key type of the tree
+ */
+public class DurableSearchTree<T extends Comparable<T>> implements Closeable {
+
+    public static final Duration DEFAULT_LINGER = Duration.ofMillis(1);
+    public static final int DEFAULT_MAX_BATCH = 1024;
+    public static final long DEFAULT_COMPACTION_THRESHOLD = 64L << 20;
+
+    private static final int MAGIC = 0x42544c31; // "BTL1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final byte INSERT = 1;
+    private static final byte DELETE = 2;
+    // record length, operation and checksum
+    private static final int RECORD_OVERHEAD = Integer.BYTES + 1 + Integer.BYTES;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String LOG_PREFIX = "log-";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final KeyCodec<T> codec;
+    private final long lingerNanos;
+    private final int maxBatch;
+    private final long compactionThreshold;
+    private final ConcurrentSearchTree<T> tree;
+    // held while changing the tree and appending the matching record, so records are in the same order as changes
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // guards the buffers, sequence numbers and state shared with the flusher thread
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private final Condition recordsAppended = commitLock.newCondition();
+    private final Condition recordsCommitted = commitLock.newCondition();
+    private final CRC32C checksum = new CRC32C(); // only used while holding the commit lock
+    private final Thread flusher;
+
+    private ByteBuffer pending = ByteBuffer.allocate(BUFFER_SIZE);
+    private ByteBuffer spare = ByteBuffer.allocate(BUFFER_SIZE);
+    private int pendingRecords;
+    private long appended; // sequence number of the last appended record
+    private long committed; // sequence number of the last record forced to disk
+    private boolean closed;
+    private IOException failure;
+
+    // only used by the flusher thread
+    private FileChannel log;
+    private long logSize;
+    private long generation;
+    private Thread compaction;
+    private volatile IOException compactionFailure;
+
+    private DurableSearchTree(Path directory, KeyCodec<T> codec, Duration linger, int maxBatch,
+                              long compactionThreshold, RedBlackTree<T> keys, FileChannel log, long generation)
+            throws IOException {
+        this.directory = directory;
+        this.codec = codec;
+        this.lingerNanos = linger.toNanos();
+        this.maxBatch = maxBatch;
+        this.compactionThreshold = compactionThreshold;
+        this.tree = new ConcurrentSearchTree<>(keys);
+        this.log = log;
+        this.logSize = log.size();
+        this.generation = generation;
+        this.flusher = new Thread(this::flushRecords, "DurableSearchTree-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Opens a tree stored in a directory with the default settings, creating it if needed.
+     * See {@link #open(Path, KeyCodec, Duration, int, long)}.
+     * @param directory directory holding the tree's files
+     * @param codec codec for the keys
+     * @param <T> the key type
+     * @return the recovered tree
+     * @throws IOException if reading or creating the files fails
+     */
+    public static <T extends Comparable<T>> DurableSearchTree<T> open(Path directory, KeyCodec<T> codec)
+            throws IOException {
+        return open(directory, codec, DEFAULT_LINGER, DEFAULT_MAX_BATCH, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Opens a tree stored in a directory, creating it if needed, and recovers the keys it held.
+     * Throws a runtime exception if the files are damaged beyond a partly written last record,
+     * which is only dropped from the end of the newest log when no readable record follows it.
+     * @param directory directory holding the tree's files
+     * @param codec codec for the keys, the same one each time the directory is opened
+     * @param linger longest time to wait for more records before committing a batch
+     * @param maxBatch number of records that commits a batch right away
+     * @param compactionThreshold size in bytes of the log that starts a compaction into a new snapshot
+     * @param <T> the key type
+     * @return the recovered tree
+     * @throws IOException if reading or creating the files fails
+     */
+    public static <T extends Comparable<T>> DurableSearchTree<T> open(Path directory, KeyCodec<T> codec,
+                                                                      Duration linger, int maxBatch,
+                                                                      long compactionThreshold) throws IOException {
+        if (linger.isNegative() || maxBatch < 1 || compactionThreshold < 1) {
+            throw new RuntimeException("Open failed: invalid settings");
+        }
+        Files.createDirectories(directory);
+        TreeMap<Long, Path> snapshots = new TreeMap<>();
+        TreeMap<Long, Path> logs = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMPORARY_SUFFIX)) { // an unfinished snapshot
+                    Files.delete(file);
+                } else if (name.startsWith(SNAPSHOT_PREFIX)) {
+                    snapshots.put(generation(name, SNAPSHOT_PREFIX), file);
+                } else if (name.startsWith(LOG_PREFIX)) {
+                    logs.put(generation(name, LOG_PREFIX), file);
+                }
+            }
+        }
+        long generation = snapshots.isEmpty() ? 0 : snapshots.lastKey();
+        RedBlackTree<T> keys = snapshots.isEmpty() ? new RedBlackTree<>()
+                : TreeSnapshot.load(snapshots.lastEntry().getValue(), codec).toTree();
+        // logs before the snapshot are already part of it
+        for (Path old : snapshots.headMap(generation).values()) {
+            Files.delete(old);
+        }
+        for (Path old : logs.headMap(generation).values()) {
+            Files.delete(old);
+        }
+        FileChannel log = null;
+        long logGeneration = generation;
+        for (var entry : logs.tailMap(generation).entrySet()) {
+            if (log != null) {
+                log.close();
+            }
+            log = FileChannel.open(entry.getValue(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            logGeneration = entry.getKey();
+            try {
+                replay(log, keys, codec, logGeneration == logs.lastKey());
+            } catch (IOException | RuntimeException e) {
+                log.close();
+                throw e;
+            }
+        }
+        if (log == null) {
+            log = createLog(directory, generation);
+        }
+        return new DurableSearchTree<>(directory, codec, linger, maxBatch, compactionThreshold, keys, log,
+                logGeneration);
+    }
+
+    private static long generation(String name, String prefix) {
+        try {
+            return Long.parseLong(name.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Open failed: unexpected file " + name);
+        }
+    }
+
+    private static FileChannel createLog(Path directory, long generation) throws IOException {
+        FileChannel log = FileChannel.open(directory.resolve(LOG_PREFIX + generation), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+        header.flip();
+        while (header.hasRemaining()) {
+            log.write(header);
+        }
+        log.force(true);
+        forceDirectory(directory);
+        return log;
+    }
+
+    /** Makes a new or renamed file in the directory durable, where the file system supports it. */
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // some platforms can't open directories, and there's nothing more to do there
+        }
+    }
+
+    /**
+     * Applies the records of a log to a tree. In the newest log, a damaged record that nothing readable follows
+     * was only partly written, and is cut off so the log can be appended to. Leaves the log positioned at its end.
+     * Throws a runtime exception for any other damaged record, and never changes a log that isn't the newest,
+     * since later logs build on everything in it.
+     */
+    private static <T extends Comparable<T>> void replay(FileChannel log, RedBlackTree<T> tree, KeyCodec<T> codec,
+                                                         boolean newest) throws IOException {
+        LogReader reader = new LogReader(log, 0);
+        if (!reader.fill(HEADER_SIZE) || reader.buffer.getInt() != MAGIC || reader.buffer.getInt() != VERSION) {
+            throw new RuntimeException("Open failed: damaged log");
+        }
+        long valid = HEADER_SIZE;
+        long size = log.size();
+        CRC32C checksum = new CRC32C();
+        while (reader.fill(1)) {
+            if (!readRecord(reader, size - valid, checksum)) {
+                if (!newest || recordAfter(log, valid, checksum)) {
+                    throw new RuntimeException("Open failed: damaged log");
+                }
+                break; // the last record was only partly written
+            }
+            ByteBuffer buffer = reader.buffer;
+            int length = buffer.getInt(buffer.position());
+            int start = buffer.position() + Integer.BYTES;
+            byte operation = buffer.get(start);
+            T key = codec.read(buffer, start + 1, length - 1);
+            if (operation == INSERT) {
+                tree.insert(key);
+            } else if (operation == DELETE) {
+                tree.delete(tree.search(key));
+            } else {
+                throw new RuntimeException("Open failed: damaged log");
+            }
+            buffer.position(start + length + Integer.BYTES);
+            valid += RECORD_OVERHEAD + length - 1;
+        }
+        if (valid < size) {
+            log.truncate(valid);
+        }
+        log.position(valid);
+    }
+
+    /**
+     * Checks that a whole record with a matching checksum starts at the reader's position,
+     * and leaves it in the reader's buffer without consuming it.
+     * @param remaining number of bytes left in the file from the reader's position
+     * @return false if the record is cut off or damaged
+     */
+    private static boolean readRecord(LogReader reader, long remaining, CRC32C checksum) throws IOException {
+        if (!reader.fill(Integer.BYTES)) {
+            return false;
+        }
+        int length = reader.buffer.getInt(reader.buffer.position());
+        if (length < 1 || length > remaining - RECORD_OVERHEAD + 1 || !reader.fill(RECORD_OVERHEAD + length - 1)) {
+            return false;
+        }
+        ByteBuffer buffer = reader.buffer;
+        int start = buffer.position() + Integer.BYTES;
+        checksum.reset();
+        checksum.update(buffer.duplicate().position(start).limit(start + length));
+        return (int) checksum.getValue() == buffer.getInt(start + length);
+    }
+
+    /**
+     * Looks for a readable record starting anywhere after a damaged one. A write cut short by a crash leaves
+     * nothing readable behind it, so finding a record means the damage is in the middle of the log.
+     * @param damaged position of the damaged record
+     * @return whether a record with a matching checksum starts after the position
+     */
+    private static boolean recordAfter(FileChannel log, long damaged, CRC32C checksum) throws IOException {
+        long size = log.size();
+        LogReader reader = new LogReader(log, damaged + 1);
+        for (long position = damaged + 1; position + RECORD_OVERHEAD <= size; position++) {
+            if (readRecord(reader, size - position, checksum)) {
+                return true;
+            }
+            reader.buffer.position(reader.buffer.position() + 1);
+        }
+        return false;
+    }
+
+    /** Reads a file sequentially through a buffer that grows to fit the largest record. */
+    private static final class LogReader {
+
+        private final FileChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).flip();
+        private long position;
+
+        LogReader(FileChannel channel, long position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        /**
+         * Makes sure the buffer holds a number of unread bytes, reading more of the file if needed.
+         * @return false if the file ends first
+         */
+        boolean fill(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return true;
+            }
+            if (bytes > buffer.capacity()) {
+                buffer = ByteBuffer.allocate(bytes).put(buffer).flip();
+            }
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                position += read;
+            }
+            buffer.flip();
+            return buffer.remaining() >= bytes;
+        }
+    }
+
+    /**
+     * Inserts a key, and returns once the insert is durable.
+     * Throws a runtime exception if the key already exists or the tree is closed.
+     * @param key the key to be added
+     * @throws IOException if writing the log failed, in which case the tree stops accepting writes
+     */
+    public void insert(T key) throws IOException {
+        long sequence;
+        writeLock.lock();
+        try {
+            checkWritable("Insert");
+            tree.insert(key);
+            sequence = append(INSERT, key);
+        } finally {
+            writeLock.unlock();
+        }
+        awaitCommit(sequence);
+    }
+
+    /**
+     * Deletes a key, and returns once the delete is durable.
+     * Throws a runtime exception if the key does not exist or the tree is closed.
+     * @param key key to be deleted
+     * @throws IOException if writing the log failed, in which case the tree stops accepting writes
+     */
+    public void delete(T key) throws IOException {
+        long sequence;
+        writeLock.lock();
+        try {
+            checkWritable("Delete");
+            tree.delete(key);
+            sequence = append(DELETE, key);
+        } finally {
+            writeLock.unlock();
+        }
+        awaitCommit(sequence);
+    }
+
+    private void checkWritable(String operation) {
+        commitLock.lock();
+        try {
+            if (closed) {
+                throw new RuntimeException(operation + " failed: tree is closed");
+            }
+            if (failure != null) {
+                throw new RuntimeException(operation + " failed: log is broken", failure);
+            }
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /** Adds a record to the pending batch and returns its sequence number. */
+    private long append(byte operation, T key) {
+        int length = 1 + codec.length(key);
+        commitLock.lock();
+        try {
+            if (pending.remaining() < length + RECORD_OVERHEAD) {
+                int capacity = Math.max(pending.capacity() * 2, pending.position() + length + RECORD_OVERHEAD);
+                pending = ByteBuffer.allocate(capacity).put(pending.flip());
+            }
+            int start = pending.position();
+            pending.putInt(length).put(operation);
+            codec.write(pending, key);
+            checksum.reset();
+            checksum.update(pending.duplicate().position(start + Integer.BYTES).limit(pending.position()));
+            pending.putInt((int) checksum.getValue());
+            pendingRecords++;
+            if (pendingRecords == 1 || pendingRecords >= maxBatch) {
+                recordsAppended.signal();
+            }
+            return ++appended;
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    private void awaitCommit(long sequence) throws IOException {
+        commitLock.lock();
+        try {
+            while (committed < sequence && failure == null) {
+                recordsCommitted.awaitUninterruptibly();
+            }
+            if (committed < sequence) {
+                throw new IOException("Commit failed: could not write the log", failure);
+            }
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /** The flusher thread's loop, which commits batches until the tree is closed. */
+    private void flushRecords() {
+        try {
+            while (true) {
+                commitLock.lock();
+                try {
+                    while (pendingRecords == 0 && !closed) {
+                        recordsAppended.awaitUninterruptibly();
+                    }
+                    if (pendingRecords == 0) {
+                        return; // closed with nothing left to write
+                    }
+                    long deadline = System.nanoTime() + lingerNanos;
+                    long remaining = lingerNanos;
+                    while (pendingRecords < maxBatch && !closed && remaining > 0) {
+                        try {
+                            recordsAppended.awaitNanos(remaining);
+                        } catch (InterruptedException e) {
+                            break;
+                        }
+                        remaining = deadline - System.nanoTime();
+                    }
+                } finally {
+                    commitLock.unlock();
+                }
+                commitBatch();
+                if (compaction != null && !compaction.isAlive()) {
+                    compaction = null;
+                }
+                if (logSize >= compactionThreshold && compaction == null) {
+                    startCompaction();
+                }
+            }
+        } catch (IOException e) {
+            commitLock.lock();
+            try {
+                failure = e;
+                recordsCommitted.signalAll();
+            } finally {
+                commitLock.unlock();
+            }
+        }
+    }
+
+    /** Writes and forces everything appended so far as one batch. */
+    private void commitBatch() throws IOException {
+        ByteBuffer batch;
+        long last;
+        commitLock.lock();
+        try {
+            batch = pending;
+            pending = spare;
+            spare = null;
+            last = appended;
+            pendingRecords = 0;
+        } finally {
+            commitLock.unlock();
+        }
+        batch.flip();
+        logSize += batch.remaining();
+        while (batch.hasRemaining()) {
+            log.write(batch);
+        }
+        log.force(false);
+        batch.clear();
+        commitLock.lock();
+        try {
+            spare = batch;
+            committed = last;
+            recordsCommitted.signalAll();
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * Pauses writers long enough to copy the keys and switch to a new log,
+     * then writes the snapshot of the copy on another thread.
+     */
+    private void startCompaction() throws IOException {
+        List<T> keys;
+        long next = generation + 1;
+        writeLock.lock();
+        try {
+            commitBatch(); // the old log has to hold everything before the copy
+            keys = tree.sorted();
+            FileChannel old = log;
+            log = createLog(directory, next);
+            logSize = log.size();
+            generation = next;
+            old.close();
+        } finally {
+            writeLock.unlock();
+        }
+        compaction = new Thread(() -> {
+            try {
+                Path temporary = directory.resolve(SNAPSHOT_PREFIX + next + TEMPORARY_SUFFIX);
+                TreeSnapshot.write(keys, keys.size(), codec, temporary);
+                Files.move(temporary, directory.resolve(SNAPSHOT_PREFIX + next), StandardCopyOption.ATOMIC_MOVE);
+                forceDirectory(directory);
+                // the new snapshot and log hold everything now
+                Files.deleteIfExists(directory.resolve(SNAPSHOT_PREFIX + (next - 1)));
+                Files.deleteIfExists(directory.resolve(LOG_PREFIX + (next - 1)));
+            } catch (IOException e) {
+                compactionFailure = e;
+            }
+        }, "DurableSearchTree-compaction");
+        compaction.setDaemon(true);
+        compaction.start();
+    }
+
+    /**
+     * Commits everything written so far, waits for a running compaction, and closes the log.
+     * Writes after closing throw a runtime exception.
+     * @throws IOException if writing the log or a compaction failed
+     */
+    @Override
+    public void close() throws IOException {
+        // taking the write lock lets a writer that already checked the tree finish appending first
+        writeLock.lock();
+        commitLock.lock();
+        try {
+            closed = true;
+            recordsAppended.signal();
+        } finally {
+            commitLock.unlock();
+            writeLock.unlock();
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                flusher.join();
+                Thread compaction = this.compaction;
+                if (compaction != null) {
+                    compaction.join();
+                }
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        log.close();
+        if (failure != null) {
+            throw failure;
+        }
+        if (compactionFailure != null) {
+            throw compactionFailure;
+        }
+    }
+
+    /**
+     * @param key key to search for
+     * @return whether the key is in the tree
+     */
+    public boolean contains(T key) {
+        return tree.contains(key);
+    }
+
+    /**
+     * Finds the minimum key of the tree.
+     * Throws a runtime exception if the tree is empty.
+     * @return minimum key
+     */
+    public T minimum() {
+        return tree.minimum();
+    }
+
+    /**
+     * Finds the maximum key of the tree.
+     * Throws a runtime exception if the tree is empty.
+     * @return maximum key
+     */
+    public T maximum() {
+        return tree.maximum();
+    }
+
+    /**
+     * @param key key to compare with, doesn't need to be in the tree
+     * @return the largest key strictly less than the given key, or null if none exists
+     */
+    public T predecessor(T key) {
+        return tree.predecessor(key);
+    }
+
+    /**
+     * @param key key to compare with, doesn't need to be in the tree
+     * @return the smallest key strictly greater than the given key, or null if none exists
+     */
+    public T successor(T key) {
+        return tree.successor(key);
+    }
+
+    /** @return the size of the tree */
+    public int size() {
+        return tree.size();
+    }
+
+    /** @return a sorted list of the keys in the tree */
+    public List<T> sorted() {
+        return tree.sorted();
+    }
+}
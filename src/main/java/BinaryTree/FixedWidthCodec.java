@@ -0,0 +1,108 @@
+package BinaryTree;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * Reads, writes and compares keys that always take the same number of bytes.
+ * This lets trees store keys directly in buffers instead of keeping key objects around.
+ * Codecs for the common primitive key types are included as constants.
+ * @param <T> the key type
+ */
+public interface FixedWidthCodec<T> {
+
+    /** @return the number of bytes a key takes */
+    int width();
+
+    /**
+     * Writes a key into a buffer without moving its position.
+     * @param buffer buffer to write to
+     * @param offset absolute offset to write at
+     * @param key key to write
+     */
+    void write(ByteBuffer buffer, int offset, T key);
+
+    /**
+     * Reads a key from a buffer without moving its position.
+     * @param buffer buffer to read from
+     * @param offset absolute offset to read at
+     * @return the key
+     */
+    T read(ByteBuffer buffer, int offset);
+
+    /**
+     * Compares a key with a key stored in a buffer, ideally without decoding the stored key into an object.
+     * @param key key to compare
+     * @param buffer buffer holding the other key
+     * @param offset absolute offset of the other key
+     * @return a negative number, zero, or a positive number as the key is less than, equal to,
+     * or greater than the stored key
+     */
+    int compare(T key, ByteBuffer buffer, int offset);
+
+    FixedWidthCodec<Integer> INT = new FixedWidthCodec<Integer>() {
+        @Override
+        public int width() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, int offset, Integer key) {
+            buffer.putInt(offset, key);
+        }
+
+        @Override
+        public Integer read(ByteBuffer buffer, int offset) {
+            return buffer.getInt(offset);
+        }
+
+        @Override
+        public int compare(Integer key, ByteBuffer buffer, int offset) {
+            return Integer.compare(key, buffer.getInt(offset));
+        }
+    };
+
+    FixedWidthCodec<Long> LONG = new FixedWidthCodec<Long>() {
+        @Override
+        public int width() {
+            return Long.BYTES;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, int offset, Long key) {
+            buffer.putLong(offset, key);
+        }
+
+        @Override
+        public Long read(ByteBuffer buffer, int offset) {
+            return buffer.getLong(offset);
+        }
+
+        @Override
+        public int compare(Long key, ByteBuffer buffer, int offset) {
+            return Long.compare(key, buffer.getLong(offset));
+        }
+    };
+
+    FixedWidthCodec<Double> DOUBLE = new FixedWidthCodec<Double>() {
+        @Override
+        public int width() {
+            return Double.BYTES;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, int offset, Double key) {
+            buffer.putDouble(offset, key);
+        }
+
+        @Override
+        public Double read(ByteBuffer buffer, int offset) {
+            return buffer.getDouble(offset);
+        }
+
+        @Override
+        public int compare(Double key, ByteBuffer buffer, int offset) {
+            return Double.compare(key, buffer.getDouble(offset));
+        }
+    };
+}
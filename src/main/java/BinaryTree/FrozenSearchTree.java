@@ -0,0 +1,236 @@
+package BinaryTree;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * An immutable copy of a search tree packed into an array in Eytzinger (breadth first) order,
+ * made for trees that are searched much more often than they change. Created with {@link SearchTree#freeze()}. <br>
+ * The children of the key at index i are at 2i and 2i + 1, so there are no node objects or links to follow,
+ * and the top levels of the tree share a few cache lines that stay hot across searches.
+ * Searches always walk the full height and pick the next index arithmetically instead of branching on the
+ * comparison, which keeps the loop free of hard to predict branches. <br>
+ * Integer and Long keys in their natural ordering are also copied into a primitive array,
+ * so searching them never touches the key objects.
+ * Java has no portable prefetch instruction, so the layout itself is what keeps the memory accesses close together.
+ * Supports search, minimum, maximum, floor, ceiling and inorder iteration.
+ * @param <T> the key type
+ */
+public class FrozenSearchTree<T> implements Iterable<T> {
+
+    // 1 based, index 0 is unused
+    private final Object[] keys;
+    private final int[] ints;
+    private final long[] longs;
+    private final int size;
+    private final Comparator<? super T> order;
+
+    /**
+     * Packs keys into the array layout.
+     * @param sorted the keys in increasing order
+     * @param size number of keys
+     * @param comparator order of the keys, or null for their natural ordering
+     */
+    FrozenSearchTree(Iterator<T> sorted, int size, Comparator<? super T> comparator) {
+        this.size = size;
+        order = comparator == null ? SearchTreeProcedures.naturalOrder() : comparator;
+        keys = new Object[size + 1];
+        fill(sorted, 1);
+        boolean allInts = size > 0 && comparator == null;
+        boolean allLongs = size > 0 && comparator == null;
+        for (int i = 1; i <= size; i++) {
+            allInts &= keys[i] instanceof Integer;
+            allLongs &= keys[i] instanceof Long;
+        }
+        ints = allInts ? new int[size + 1] : null;
+        longs = allLongs ? new long[size + 1] : null;
+        for (int i = 1; i <= size; i++) {
+            if (allInts) {
+                ints[i] = (Integer) keys[i];
+            } else if (allLongs) {
+                longs[i] = (Long) keys[i];
+            }
+        }
+    }
+
+    /**
+     * Utility method for the constructor, places keys in inorder, so they end up in search order.
+     * The recursion depth is the height of the packed tree, which is logarithmic.
+     */
+    private void fill(Iterator<T> sorted, int index) {
+        if (index <= size) {
+            fill(sorted, 2 * index);
+            keys[index] = sorted.next();
+            fill(sorted, 2 * index + 1);
+        }
+    }
+
+    /**
+     * @param key key to search for
+     * @return whether the key is in the tree
+     */
+    public boolean contains(T key) {
+        int index = lowerBound(key);
+        return index != 0 && order.compare(key(index), key) == 0;
+    }
+
+    /**
+     * Finds the minimum key of the tree.
+     * Throws a runtime exception if the tree is empty.
+     * @return minimum key
+     */
+    public T minimum() {
+        if (size == 0) {
+            throw new RuntimeException("Get minimum failed: tree is empty");
+        }
+        return key(first());
+    }
+
+    /**
+     * Finds the maximum key of the tree.
+     * Throws a runtime exception if the tree is empty.
+     * @return maximum key
+     */
+    public T maximum() {
+        if (size == 0) {
+            throw new RuntimeException("Get maximum failed: tree is empty");
+        }
+        return key(last());
+    }
+
+    /**
+     * Finds the smallest key greater than or equal to a given key.
+     * @param key key to compare with, doesn't need to be in the tree
+     * @return the matching key or null if none exists
+     */
+    public T ceiling(T key) {
+        int index = lowerBound(key);
+        return index == 0 ? null : key(index);
+    }
+
+    /**
+     * Finds the largest key less than or equal to a given key.
+     * @param key key to compare with, doesn't need to be in the tree
+     * @return the matching key or null if none exists
+     */
+    public T floor(T key) {
+        int index = lowerBound(key);
+        if (index != 0 && order.compare(key(index), key) == 0) {
+            return key(index);
+        }
+        index = index == 0 ? last() : predecessor(index);
+        return index == 0 ? null : key(index);
+    }
+
+    /** @return the size of the tree */
+    public int size() {
+        return size;
+    }
+
+    /** @return an iterator over the keys in increasing order */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private int next = first();
+
+            @Override
+            public boolean hasNext() {
+                return next != 0;
+            }
+
+            @Override
+            public T next() {
+                if (next == 0) {
+                    throw new NoSuchElementException();
+                }
+                T key = key(next);
+                next = successor(next);
+                return key;
+            }
+        };
+    }
+
+    /**
+     * Finds the first key that is not less than a given key.
+     * The walk goes to a missing child index and then undoes the right turns made after the last left turn,
+     * which are the trailing 1 bits of the index.
+     * @param key key to compare with
+     * @return index of the matching key, or 0 if every key is less
+     */
+    private int lowerBound(T key) {
+        int index = 1;
+        if (ints != null) {
+            int value = (Integer) key;
+            while (index <= size) {
+                index = 2 * index + (ints[index] < value ? 1 : 0);
+            }
+        } else if (longs != null) {
+            long value = (Long) key;
+            while (index <= size) {
+                index = 2 * index + (longs[index] < value ? 1 : 0);
+            }
+        } else {
+            while (index <= size) {
+                index = 2 * index + (order.compare(key(index), key) < 0 ? 1 : 0);
+            }
+        }
+        return index >>> (Integer.numberOfTrailingZeros(~index) + 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T key(int index) {
+        return (T) keys[index];
+    }
+
+    /** @return index of the smallest key, 0 if the tree is empty */
+    private int first() {
+        if (size == 0) {
+            return 0;
+        }
+        int index = 1;
+        while (2 * index <= size) {
+            index = 2 * index;
+        }
+        return index;
+    }
+
+    /** @return index of the largest key, 0 if the tree is empty */
+    private int last() {
+        if (size == 0) {
+            return 0;
+        }
+        int index = 1;
+        while (2 * index + 1 <= size) {
+            index = 2 * index + 1;
+        }
+        return index;
+    }
+
+    /** @return index of the next key in inorder, 0 if none exists */
+    private int successor(int index) {
+        if (2 * index + 1 <= size) {
+            index = 2 * index + 1;
+            while (2 * index <= size) {
+                index = 2 * index;
+            }
+            return index;
+        }
+        // go up past every right child, then once more
+        return index >>> (Integer.numberOfTrailingZeros(~index) + 1);
+    }
+
+    /** @return index of the previous key in inorder, 0 if none exists */
+    private int predecessor(int index) {
+        if (2 * index <= size) {
+            index = 2 * index;
+            while (2 * index + 1 <= size) {
+                index = 2 * index + 1;
+            }
+            return index;
+        }
+        // go up past every left child, then once more
+        return index >>> (Integer.numberOfTrailingZeros(index) + 1);
+    }
+}
@@ -1,9 +1,12 @@
 package BinaryTree;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
- * Last edited 1/5/2022 <br>
+ * Last edited 10/16/2026 <br>
  * A collection of static procedures commonly used on general binary trees.
  * These are separate from the search tree procedures for clarity.<br>
  * The syntax before each method is to allow for generic typing. This allows
@@ -13,10 +16,12 @@ import java.util.*;
 public class GeneralProcedures {
 
     private static final int SPACE_WIDTH = 1;
+    private static final int INDENT_WIDTH = 4;
+    private static final String SPACES = " ".repeat(64);
 
     /**
      * Creates a string visual representation of a node.
-     * Note that the size of the string will grow exponentially with the height of the node,
+     * Note that the size of the string will grow exponentially with the number of levels,
      * so this works best for smallish balanced trees.
      * Also spacing works best for monospace fonts.
      * @param root root node
@@ -26,62 +31,201 @@ public class GeneralProcedures {
      */
     public static <T> String toString(Node<T> root, int numLevels) {
         StringBuilder output = new StringBuilder();
-        // a map is used here so that indexes can be assigned to elements without needing memory for blank spaces
-        Map<Integer, String> elements = new HashMap<>();
-        populateElementMap(elements, root, 1);
-        int maxWidth = elements.values().stream().mapToInt(String::length).max().orElse(0);
-        for (int line = 0; line < Math.min(numLevels, height(root)); line++) {
+        try {
+            render(root, numLevels, output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // a StringBuilder never throws
+        }
+        return output.toString();
+    }
+
+    /**
+     * Writes the same visual representation as {@link #toString(Node, int)} directly to an output.
+     * Only the printed levels are visited, so deep trees are fine as long as few levels are requested.
+     * Every level doubles the width of the lines, so when the lines would be longer than a string can be,
+     * which happens at around 30 levels, the tree is written sideways instead, see {@link #renderSideways}.
+     * @param root root node
+     * @param numLevels number of levels to print
+     * @param output where to write the lines
+     * @param <T> node key type
+     * @throws IOException if the output throws
+     */
+    public static <T> void render(Node<T> root, int numLevels, Appendable output) throws IOException {
+        // the first pass finds the widest key and how many levels are present, only looking at the printed levels
+        int maxWidth = 0;
+        int levels = 0;
+        List<Node<T>> nodes = new ArrayList<>();
+        if (root != null) {
+            nodes.add(root);
+        }
+        while (levels < numLevels && !nodes.isEmpty()) {
+            List<Node<T>> next = new ArrayList<>();
+            for (Node<T> node : nodes) {
+                maxWidth = Math.max(maxWidth, node.getKey().toString().length());
+                addChildren(next, node);
+            }
+            nodes = next;
+            levels++;
+        }
+        if (levels > 0 && (numLevels > 31 || (long) (maxWidth + SPACE_WIDTH) << (numLevels - 1) > Integer.MAX_VALUE)) {
+            renderSideways(root, numLevels, output);
+            return;
+        }
+        // the second pass keeps empty positions as nulls, so each level holds as many entries as it prints
+        List<Node<T>> level = new ArrayList<>();
+        level.add(root);
+        for (int line = 0; line < levels; line++) {
             // the padding formula looks esoteric but makes sense if you look at a diagram
-            int paddingSize = ((int) Math.pow(2, numLevels - line - 1) - 1) * (maxWidth + SPACE_WIDTH);
-            String padding = space(paddingSize / 2);
-            int elementCount = (int) Math.pow(2, line);
-            for (int i = elementCount; i < 2 * elementCount; i++) {
-                String element = elements.get(i);
-                output.append(padding);
+            long paddingSize = ((1L << (numLevels - line - 1)) - 1) * (maxWidth + SPACE_WIDTH) / 2;
+            List<Node<T>> next = new ArrayList<>(line < levels - 1 ? level.size() * 2 : 0);
+            for (int i = 0; i < level.size(); i++) {
+                Node<T> node = level.get(i);
+                space(output, paddingSize);
                 // adding some spaces is necessary depending on the parities of the widths
                 if (line < numLevels - 1 && (SPACE_WIDTH + maxWidth) % 2 == 1) {
-                    output.append(" ");
+                    output.append(' ');
                 }
-                if (element != null) {
-                    output.append(element).append(space(maxWidth - element.length()));
+                if (node != null) {
+                    String element = node.getKey().toString();
+                    output.append(element);
+                    space(output, maxWidth - element.length());
                 } else {
-                    output.append(space(maxWidth));
+                    space(output, maxWidth);
                 }
-                output.append(padding);
-                if (i < 2 * elementCount - 1) {
-                    output.append(space(SPACE_WIDTH));
+                space(output, paddingSize);
+                if (i < level.size() - 1) {
+                    space(output, SPACE_WIDTH);
+                }
+                if (line < levels - 1) {
+                    next.add(node == null ? null : node.getLeft());
+                    next.add(node == null ? null : node.getRight());
                 }
             }
             output.append('\n');
+            level = next;
         }
-        return output.toString();
     }
 
     /**
-     * Utility method for toString
-     * @param width the size of space
-     * @return a string of width number of spaces
+     * Writes the tree sideways, one key per line, indented by its depth with the right subtree above the root.
+     * The output grows linearly with the number of printed nodes, so this works for large trees.
+     * @param root root node
+     * @param numLevels number of levels to print
+     * @param output where to write the lines
+     * @param <T> node key type
+     * @throws IOException if the output throws
      */
-    private static String space(int width) {
-        StringBuilder string = new StringBuilder();
-        for (int i = 0; i < width; i++) {
-            string.append(' ');
+    public static <T> void renderSideways(Node<T> root, int numLevels, Appendable output) throws IOException {
+        // a reverse inorder walk, keeping the depth of every stacked node alongside it
+        Deque<Node<T>> stack = new ArrayDeque<>();
+        int[] depths = new int[16];
+        Node<T> node = root;
+        int depth = 0;
+        while (node != null || !stack.isEmpty()) {
+            while (node != null && depth < numLevels) {
+                if (stack.size() == depths.length) {
+                    depths = Arrays.copyOf(depths, depths.length * 2);
+                }
+                depths[stack.size()] = depth;
+                stack.push(node);
+                node = node.getRight();
+                depth++;
+            }
+            if (stack.isEmpty()) {
+                break;
+            }
+            node = stack.pop();
+            depth = depths[stack.size()];
+            space(output, (long) depth * INDENT_WIDTH);
+            output.append(node.getKey().toString()).append('\n');
+            node = node.getLeft();
+            depth++;
         }
-        return string.toString();
     }
 
     /**
-     * Utility method for toString, returns a map of node indexes for a given tree
-     * @param elementMap map of node indexes and their string representations
-     * @param node the root of the tree
-     * @param index index of the root node of the tree (in the initial call), assumes 1 based indexing
+     * Writes the tree in the DOT language, which Graphviz can draw.
+     * Missing children are drawn as points when the other child exists so that left and right stay apart.
+     * Red nodes of a red-black tree are outlined in red.
+     * @param root root node
+     * @param output where to write the graph
      * @param <T> node key type
+     * @throws IOException if the output throws
+     */
+    public static <T> void renderDot(Node<T> root, Appendable output) throws IOException {
+        output.append("digraph tree {\n");
+        output.append("    node [shape=circle];\n");
+        // nodes are numbered in preorder, and the stack holds each node with its number
+        Deque<Node<T>> stack = new ArrayDeque<>();
+        Deque<Long> ids = new ArrayDeque<>();
+        long nextId = 0;
+        if (root != null) {
+            stack.push(root);
+            ids.push(nextId++);
+        }
+        while (!stack.isEmpty()) {
+            Node<T> node = stack.pop();
+            long id = ids.pop();
+            output.append("    n").append(Long.toString(id)).append(" [label=\"");
+            escape(output, node.getKey().toString());
+            output.append(node.isRed() ? "\", color=red];\n" : "\"];\n");
+            Node<T> left = node.getLeft();
+            Node<T> right = node.getRight();
+            long leftId = nextId++;
+            long rightId = nextId++;
+            if (left != null || right != null) {
+                dotEdge(output, id, leftId, left == null);
+                dotEdge(output, id, rightId, right == null);
+            }
+            if (right != null) {
+                stack.push(right);
+                ids.push(rightId);
+            }
+            if (left != null) {
+                stack.push(left);
+                ids.push(leftId);
+            }
+        }
+        output.append("}\n");
+    }
+
+    private static void dotEdge(Appendable output, long parent, long child, boolean missing) throws IOException {
+        if (missing) {
+            output.append("    n").append(Long.toString(child)).append(" [shape=point];\n");
+        }
+        output.append("    n").append(Long.toString(parent)).append(" -> n").append(Long.toString(child)).append(";\n");
+    }
+
+    private static void escape(Appendable output, String label) throws IOException {
+        for (int i = 0; i < label.length(); i++) {
+            char c = label.charAt(i);
+            if (c == '"' || c == '\\') {
+                output.append('\\');
+            }
+            output.append(c == '\n' ? ' ' : c);
+        }
+    }
+
+    private static <T> void addChildren(List<Node<T>> list, Node<T> node) {
+        if (node.getLeft() != null) {
+            list.add(node.getLeft());
+        }
+        if (node.getRight() != null) {
+            list.add(node.getRight());
+        }
+    }
+
+    /**
+     * Utility method for rendering, writes spaces without building a string
+     * @param output where to write
+     * @param width the number of spaces
+     * @throws IOException if the output throws
      */
-    private static <T> void populateElementMap(Map<Integer, String> elementMap, Node<T> node, int index) {
-        if (node != null) {
-            elementMap.put(index, node.getKey().toString());
-            populateElementMap(elementMap, node.getLeft(), index * 2);
-            populateElementMap(elementMap, node.getRight(), index * 2 + 1);
+    private static void space(Appendable output, long width) throws IOException {
+        while (width > 0) {
+            int chunk = (int) Math.min(width, SPACES.length());
+            output.append(SPACES, 0, chunk);
+            width -= chunk;
         }
     }
 
@@ -90,11 +234,7 @@ public class GeneralProcedures {
      * @return the depth of the tree
      */
     public static int height(Node<?> root) {
-        if (root == null) {
-            return 0;
-        } else {
-            return 1 + Math.max(height(root.getLeft()), height(root.getRight()));
-        }
+        return ParallelProcedures.height(root);
     }
 
     /**
@@ -102,11 +242,7 @@ public class GeneralProcedures {
      * @return the number of nodes underneath the root
      */
     public static int size(Node<?> root) {
-        if (root == null) {
-            return 0;
-        } else {
-            return 1 + size(root.getLeft()) + size(root.getRight());
-        }
+        return ParallelProcedures.size(root);
     }
 
     /**
@@ -115,17 +251,7 @@ public class GeneralProcedures {
      * @return a preorder listing of the tree
      */
     public static <T> List<T> preorder(Node<T> root) {
-        List<T> list = new ArrayList<>();
-        preorder(list, root);
-        return list;
-    }
-
-    private static <T> void preorder(List<T> list, Node<T> node) {
-        if (node != null) {
-            list.add(node.getKey());
-            preorder(list, node.getLeft());
-            preorder(list, node.getRight());
-        }
+        return toList(preorderIterator(root));
     }
 
     /**
@@ -134,17 +260,7 @@ public class GeneralProcedures {
      * @return an inorder listing of the tree
      */
     public static <T> List<T> inorder(Node<T> root) {
-        List<T> list = new ArrayList<>();
-        inorder(list, root);
-        return list;
-    }
-
-    private static <T> void inorder(List<T> list, Node<T> node) {
-        if (node != null) {
-            inorder(list, node.getLeft());
-            list.add(node.getKey());
-            inorder(list, node.getRight());
-        }
+        return toList(inorderIterator(root));
     }
 
     /**
@@ -153,45 +269,409 @@ public class GeneralProcedures {
      * @return a postorder listing of the tree
      */
     public static <T> List<T> postorder(Node<T> root) {
+        return toList(postorderIterator(root));
+    }
+
+    private static <T> List<T> toList(Iterator<T> iterator) {
         List<T> list = new ArrayList<>();
-        postorder(list, root);
+        iterator.forEachRemaining(list::add);
         return list;
     }
 
-    private static <T> void postorder(List<T> list, Node<T> node) {
-        if (node != null) {
-            postorder(list, node.getLeft());
-            postorder(list, node.getRight());
-            list.add(node.getKey());
+    /**
+     * Creates a lazy preorder iterator, which visits a node before its subtrees.
+     * The iterator doesn't use recursion and only keeps memory proportional to the height of the tree.
+     * The tree should not be changed while iterating.
+     * @param root root of the tree, can be null
+     * @param <T> node key type
+     * @return a preorder iterator over the keys of the tree
+     */
+    public static <T> Iterator<T> preorderIterator(Node<T> root) {
+        return new Iterator<T>() {
+            // nodes whose subtrees haven't been visited yet, the next node is on top
+            private final Deque<Node<T>> stack = new ArrayDeque<>();
+
+            {
+                if (root != null) {
+                    stack.push(root);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (stack.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node<T> node = stack.pop();
+                if (node.getRight() != null) {
+                    stack.push(node.getRight());
+                }
+                if (node.getLeft() != null) {
+                    stack.push(node.getLeft());
+                }
+                return node.getKey();
+            }
+        };
+    }
+
+    /**
+     * Creates a lazy inorder iterator, which visits a node between its left and right subtrees.
+     * The iterator doesn't use recursion and only keeps memory proportional to the height of the tree.
+     * The tree should not be changed while iterating.
+     * @param root root of the tree, can be null
+     * @param <T> node key type
+     * @return an inorder iterator over the keys of the tree
+     */
+    public static <T> Iterator<T> inorderIterator(Node<T> root) {
+        return new Iterator<T>() {
+            // nodes whose key and right subtree haven't been visited yet, the next node is on top
+            private final Deque<Node<T>> stack = new ArrayDeque<>();
+
+            {
+                pushLeftPath(stack, root);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (stack.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node<T> node = stack.pop();
+                pushLeftPath(stack, node.getRight());
+                return node.getKey();
+            }
+        };
+    }
+
+    /**
+     * Creates a lazy postorder iterator, which visits a node after its subtrees.
+     * The iterator doesn't use recursion and only keeps memory proportional to the height of the tree.
+     * The tree should not be changed while iterating.
+     * @param root root of the tree, can be null
+     * @param <T> node key type
+     * @return a postorder iterator over the keys of the tree
+     */
+    public static <T> Iterator<T> postorderIterator(Node<T> root) {
+        return new Iterator<T>() {
+            // the path down to the next node, the next node is on top
+            private final Deque<Node<T>> stack = new ArrayDeque<>();
+
+            {
+                pushFirstPostorderPath(root);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (stack.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node<T> node = stack.pop();
+                // after a left child comes the right subtree of the parent, after a right child comes the parent
+                Node<T> parent = stack.peek();
+                if (parent != null && parent.getLeft() == node) {
+                    pushFirstPostorderPath(parent.getRight());
+                }
+                return node.getKey();
+            }
+
+            /** Pushes the path from a node down to the first node of its subtree in postorder. */
+            private void pushFirstPostorderPath(Node<T> node) {
+                while (node != null) {
+                    stack.push(node);
+                    node = node.getLeft() != null ? node.getLeft() : node.getRight();
+                }
+            }
+        };
+    }
+
+    /**
+     * Creates a spliterator over the keys of a tree in inorder.
+     * Splitting divides the remaining keys at subtree boundaries using the subtree sizes kept in the nodes,
+     * so parallel streams get evenly sized parts. Like the iterators, it only keeps memory
+     * proportional to the height of the tree. The tree should not be changed while iterating.
+     * @param root root of the tree, can be null
+     * @param sorted whether the tree is a search tree, meaning keys come out in their natural order
+     * @param <T> node key type
+     * @return an inorder spliterator over the keys of the tree
+     */
+    public static <T> Spliterator<T> inorderSpliterator(Node<T> root, boolean sorted) {
+        return inorderSpliterator(root, sorted, null);
+    }
+
+    /**
+     * Creates a spliterator over the keys of a search tree ordered by a comparator,
+     * see {@link #inorderSpliterator(Node, boolean)}. The spliterator reports the comparator,
+     * so sorting the stream again in the same order doesn't do anything.
+     * @param root root of the tree, can be null
+     * @param comparator order of the tree's keys, or null for their natural order
+     * @param <T> node key type
+     * @return an inorder spliterator over the keys of the tree
+     */
+    public static <T> Spliterator<T> inorderSpliterator(Node<T> root, Comparator<? super T> comparator) {
+        return inorderSpliterator(root, true, comparator);
+    }
+
+    private static <T> Spliterator<T> inorderSpliterator(Node<T> root, boolean sorted,
+                                                         Comparator<? super T> comparator) {
+        List<Node<T>> stack = new ArrayList<>();
+        for (Node<T> node = root; node != null; node = node.getLeft()) {
+            stack.add(node);
+        }
+        return new InorderSpliterator<>(null, stack, root == null ? 0 : root.getSize(), sorted, comparator);
+    }
+
+    /**
+     * Utility class for inorderSpliterator. The remaining keys are an optional single node followed by
+     * the key and right subtree of each node in the stack, from the top of the stack (the end of the list) down.
+     * @param <T> node key type
+     */
+    private static final class InorderSpliterator<T> implements Spliterator<T> {
+
+        private Node<T> single;
+        private final List<Node<T>> stack;
+        private long remaining;
+        private final boolean sorted;
+        private final Comparator<? super T> comparator; // null for the natural order
+
+        InorderSpliterator(Node<T> single, List<Node<T>> stack, long remaining, boolean sorted,
+                           Comparator<? super T> comparator) {
+            this.single = single;
+            this.stack = stack;
+            this.remaining = remaining;
+            this.sorted = sorted;
+            this.comparator = comparator;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            Node<T> node;
+            if (single != null) {
+                node = single;
+                single = null;
+            } else if (!stack.isEmpty()) {
+                node = stack.remove(stack.size() - 1);
+                for (Node<T> next = node.getRight(); next != null; next = next.getLeft()) {
+                    stack.add(next);
+                }
+            } else {
+                return false;
+            }
+            remaining--;
+            action.accept(node.getKey());
+            return true;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (single != null) {
+                // split off the single node so the stack can be split next time
+                Spliterator<T> prefix = new InorderSpliterator<>(single, new ArrayList<>(), 1, sorted, comparator);
+                single = null;
+                remaining--;
+                return prefix;
+            }
+            if (stack.isEmpty()) {
+                return null;
+            }
+            if (stack.size() == 1) {
+                // only one node is left, split it off and continue with the left path of its right subtree
+                Node<T> node = stack.remove(0);
+                for (Node<T> next = node.getRight(); next != null; next = next.getLeft()) {
+                    stack.add(next);
+                }
+                remaining--;
+                return new InorderSpliterator<>(node, new ArrayList<>(), 1, sorted, comparator);
+            }
+            // take nodes from the top of the stack until about half of the keys are covered
+            long half = remaining / 2;
+            long covered = 0;
+            int split = stack.size();
+            while (split > 1 && covered < half) {
+                split--;
+                covered += 1 + size(stack.get(split).getRight());
+            }
+            List<Node<T>> top = stack.subList(split, stack.size());
+            Spliterator<T> prefix = new InorderSpliterator<>(null, new ArrayList<>(top), covered, sorted,
+                    comparator);
+            top.clear();
+            remaining -= covered;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return remaining;
+        }
+
+        @Override
+        public int characteristics() {
+            int characteristics = ORDERED | DISTINCT | NONNULL | SIZED | SUBSIZED;
+            return sorted ? characteristics | SORTED : characteristics;
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            if (!sorted) {
+                throw new IllegalStateException();
+            }
+            return comparator;
+        }
+
+        private static int size(Node<?> node) {
+            return node == null ? 0 : node.getSize();
+        }
+    }
+
+    private static <T> void pushLeftPath(Deque<Node<T>> stack, Node<T> node) {
+        while (node != null) {
+            stack.push(node);
+            node = node.getLeft();
         }
     }
 
     /**
-     * This method is a safe wrapper for the longer signature version.
+     * Creates the unique binary tree represented by a given preorder and inorder list, in linear time.
+     * The lists are not modified.
      * @param preorder preorder list for the tree, no repeating elements
      * @param inorder inorder list for the tree, no repeating elements
      * @param <T> key type
-     * @return The unique binary tree represented by a given preorder and inorder list.
-     * @throws RuntimeException when the input lists don't share their elements or if a list has a repeating element
+     * @return The unique binary tree represented by a given preorder and inorder list, null if the lists are empty.
+     * @throws RuntimeException when the input lists don't share their elements, if a list has a repeating element,
+     * or if no tree matches both lists
      */
     public static <T> Node<T> createFromLists(List<T> preorder, List<T> inorder) {
-        if (preorder.size() != inorder.size()) {
+        return createFromTraversals(preorder, inorder, false);
+    }
+
+    /**
+     * Creates the unique binary tree represented by a given postorder and inorder list, in linear time.
+     * The lists are not modified.
+     * @param postorder postorder list for the tree, no repeating elements
+     * @param inorder inorder list for the tree, no repeating elements
+     * @param <T> key type
+     * @return The unique binary tree represented by a given postorder and inorder list, null if the lists are empty.
+     * @throws RuntimeException when the input lists don't share their elements, if a list has a repeating element,
+     * or if no tree matches both lists
+     */
+    public static <T> Node<T> createFromPostorderLists(List<T> postorder, List<T> inorder) {
+        return createFromTraversals(postorder, inorder, true);
+    }
+
+    /**
+     * Utility method for createFromLists and createFromPostorderLists.
+     * Nodes are created in the order of the first list, using a stack of nodes still waiting for their other child.
+     * A reversed postorder list is a preorder list that visits right children first,
+     * so the postorder case is the preorder case read backwards with left and right swapped.
+     * @param order preorder or postorder list
+     * @param inorder inorder list
+     * @param postorder whether the first list is postorder
+     * @param <T> key type
+     * @return the tree represented by the lists
+     */
+    private static <T> Node<T> createFromTraversals(List<T> order, List<T> inorder, boolean postorder) {
+        int size = order.size();
+        if (size != inorder.size()) {
             throw new RuntimeException("Create tree failed: lists don't match size");
         }
-        for (T t : preorder) {
-            if (!inorder.contains(t)) {
+        if (size == 0) {
+            return null;
+        }
+        // random access is needed to read the lists in any direction in linear time
+        order = order instanceof RandomAccess ? order : new ArrayList<>(order);
+        inorder = inorder instanceof RandomAccess ? inorder : new ArrayList<>(inorder);
+        Map<T, Integer> inorderIndexes = new HashMap<>(size * 4 / 3 + 1);
+        boolean repeating = false;
+        for (int i = 0; i < size; i++) {
+            repeating |= inorderIndexes.put(inorder.get(i), i) != null;
+        }
+        // the inorder position of each element of the first list, in processing order
+        int[] positions = new int[size];
+        boolean[] used = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            Integer position = inorderIndexes.get(order.get(postorder ? size - 1 - i : i));
+            if (position == null) {
                 throw new RuntimeException("Create tree failed: list elements don't match");
             }
+            repeating |= used[position];
+            used[position] = true;
+            positions[i] = postorder ? size - 1 - position : position;
         }
-        if (new HashSet<>(preorder).size() != preorder.size() ||
-            new HashSet<>(inorder).size() != inorder.size()) {
+        if (repeating) {
             throw new RuntimeException("Create tree failed: lists contain repeating elements");
         }
-        Node<T> node = new Node<>(null, null, null, null);
-        createFromLists(node, preorder, inorder);
-        return node;
+        // positions are now in preorder form: the first child is created while the inorder position of the top of
+        // the stack hasn't been reached yet, otherwise the finished nodes are popped and the second child is created
+        List<Node<T>> nodes = new ArrayList<>(size);
+        int[] stack = new int[size];
+        int stackSize = 0;
+        int next = 0;
+        nodes.add(new Node<>(order.get(postorder ? size - 1 : 0), null, null, null));
+        stack[stackSize++] = 0;
+        for (int i = 1; i < size; i++) {
+            Node<T> node = new Node<>(order.get(postorder ? size - 1 - i : i), null, null, null);
+            Node<T> parent;
+            boolean first;
+            if (positions[stack[stackSize - 1]] != next) {
+                parent = nodes.get(stack[stackSize - 1]);
+                first = true;
+            } else {
+                int popped;
+                do {
+                    popped = stack[--stackSize];
+                    next++;
+                } while (stackSize > 0 && positions[stack[stackSize - 1]] == next);
+                parent = nodes.get(popped);
+                first = false;
+            }
+            // the first child is the left one for preorder and the right one for postorder
+            if (first != postorder) {
+                parent.setLeft(node);
+            } else {
+                parent.setRight(node);
+            }
+            node.setParent(parent);
+            nodes.add(node);
+            stack[stackSize++] = i;
+        }
+        // every node comes after its parent, so going backwards sizes the children before their parents
+        for (int i = size - 1; i >= 0; i--) {
+            nodes.get(i).updateSize();
+        }
+        Node<T> root = nodes.get(0);
+        Iterator<T> built = inorderIterator(root);
+        for (T key : inorder) {
+            if (!built.next().equals(key)) {
+                throw new RuntimeException("Create tree failed: lists don't represent a tree");
+            }
+        }
+        return root;
     }
 
+    /**
+     * Creates a subtree from a preorder and inorder list, consuming the used elements of the preorder list.
+     * @param node node to become the root of the subtree
+     * @param preorder preorder list for the tree, its used elements are removed
+     * @param inorder inorder list for the tree
+     * @param <T> key type
+     * @deprecated takes quadratic time and recursion proportional to the height of the tree,
+     * use {@link #createFromLists(List, List)} instead
+     */
+    @Deprecated
     public static <T> void createFromLists(Node<T> node, List<T> preorder, List<T> inorder) {
         node.setKey(preorder.get(0));
         preorder.remove(0);
@@ -215,5 +695,6 @@ public class GeneralProcedures {
             createFromLists(node.getRight(), preorder,
                     inorder.subList(loc + 1, inorder.size()));
         }
+        node.updateSize();
     }
 }
\ No newline at end of file
@@ -0,0 +1,193 @@
+package BinaryTree;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * Encodes keys to bytes for {@link TreeSnapshot} files, and reads and compares them in place.
+ * Codecs either give every key the same width, or have a variable width that is stored next to the keys.
+ * The codec name is saved in the file, so a snapshot can't be loaded with the wrong codec.
+ * @param <T> the key type
+ */
+public interface KeyCodec<T> {
+
+    /** Width returned by codecs whose keys don't all have the same width */
+    int VARIABLE_WIDTH = -1;
+
+    /** @return the name saved in snapshot files, at most 24 bytes of UTF-8 */
+    String name();
+
+    /** @return the number of bytes every key takes, or VARIABLE_WIDTH */
+    int width();
+
+    /**
+     * @param key key to measure
+     * @return the number of bytes the key is encoded to
+     */
+    int length(T key);
+
+    /**
+     * Writes a key at the buffer's position and moves the position past it.
+     * @param buffer buffer with at least length(key) bytes remaining
+     * @param key key to write
+     */
+    void write(ByteBuffer buffer, T key);
+
+    /**
+     * Reads a key without moving the buffer's position.
+     * @param buffer buffer to read from
+     * @param offset absolute offset of the key
+     * @param length encoded length of the key
+     * @return the key
+     */
+    T read(ByteBuffer buffer, int offset, int length);
+
+    /**
+     * Compares a key with an encoded key, without moving the buffer's position.
+     * @param key key to compare
+     * @param buffer buffer holding the other key
+     * @param offset absolute offset of the other key
+     * @param length encoded length of the other key
+     * @return a negative number, zero, or a positive number as the key is less than, equal to,
+     * or greater than the stored key
+     */
+    int compare(T key, ByteBuffer buffer, int offset, int length);
+
+    /**
+     * Creates a codec from a fixed width codec, so the two stay in sync.
+     * @param name name saved in snapshot files
+     * @param codec codec to use
+     * @param <T> the key type
+     * @return a key codec with the width of the fixed width codec
+     */
+    static <T> KeyCodec<T> fixed(String name, FixedWidthCodec<T> codec) {
+        return new KeyCodec<T>() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public int width() {
+                return codec.width();
+            }
+
+            @Override
+            public int length(T key) {
+                return codec.width();
+            }
+
+            @Override
+            public void write(ByteBuffer buffer, T key) {
+                codec.write(buffer, buffer.position(), key);
+                buffer.position(buffer.position() + codec.width());
+            }
+
+            @Override
+            public T read(ByteBuffer buffer, int offset, int length) {
+                return codec.read(buffer, offset);
+            }
+
+            @Override
+            public int compare(T key, ByteBuffer buffer, int offset, int length) {
+                return codec.compare(key, buffer, offset);
+            }
+        };
+    }
+
+    KeyCodec<Integer> INT = fixed("int", FixedWidthCodec.INT);
+
+    KeyCodec<Long> LONG = fixed("long", FixedWidthCodec.LONG);
+
+    KeyCodec<Double> DOUBLE = fixed("double", FixedWidthCodec.DOUBLE);
+
+    /**
+     * Strings stored as UTF-8. Stored keys are decoded a character at a time as they are compared, since the order
+     * of UTF-8 bytes doesn't always match the order of {@link String#compareTo(String)}, but no strings are created.
+     */
+    KeyCodec<String> STRING = new KeyCodec<String>() {
+        @Override
+        public String name() {
+            return "string";
+        }
+
+        @Override
+        public int width() {
+            return VARIABLE_WIDTH;
+        }
+
+        @Override
+        public int length(String key) {
+            int length = 0;
+            for (int i = 0; i < key.length(); i++) {
+                char c = key.charAt(i);
+                if (c < 0x80) {
+                    length++;
+                } else if (c < 0x800) {
+                    length += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < key.length()
+                        && Character.isLowSurrogate(key.charAt(i + 1))) {
+                    length += 4;
+                    i++;
+                } else if (Character.isSurrogate(c)) { // unpaired surrogates are replaced with '?'
+                    length++;
+                } else {
+                    length += 3;
+                }
+            }
+            return length;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, String key) {
+            buffer.put(key.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String read(ByteBuffer buffer, int offset, int length) {
+            byte[] bytes = new byte[length];
+            buffer.get(offset, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int compare(String key, ByteBuffer buffer, int offset, int length) {
+            int index = 0;
+            int end = offset + length;
+            int position = offset;
+            while (position < end) {
+                int lead = buffer.get(position) & 0xff;
+                int size = lead < 0x80 ? 1 : lead < 0xc0 ? 0 : lead < 0xe0 ? 2 : lead < 0xf0 ? 3 : lead < 0xf8 ? 4 : 0;
+                int codePoint = size == 1 ? lead : size == 0 || position + size > end ? -1 : lead & (0x7f >> size);
+                for (int i = 1; i < size && codePoint >= 0; i++) {
+                    int next = buffer.get(position + i);
+                    codePoint = (next & 0xc0) == 0x80 ? codePoint << 6 | next & 0x3f : -1;
+                }
+                if (codePoint < (size == 2 ? 0x80 : size == 3 ? 0x800 : size == 4 ? 0x10000 : 0)
+                        || codePoint > Character.MAX_CODE_POINT
+                        || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+                    // malformed bytes decode to the replacement character, which only happens in damaged files
+                    codePoint = 0xfffd;
+                    size = 1;
+                }
+                position += size;
+                // compare UTF-16 units like compareTo, so characters past 0xffff compare as their surrogates
+                boolean pair = !Character.isBmpCodePoint(codePoint);
+                int comparison = compareUnit(key, index++, pair ? Character.highSurrogate(codePoint) : codePoint);
+                if (comparison == 0 && pair) {
+                    comparison = compareUnit(key, index++, Character.lowSurrogate(codePoint));
+                }
+                if (comparison != 0) {
+                    return comparison;
+                }
+            }
+            return index < key.length() ? 1 : 0;
+        }
+
+        /** Compares a unit of the key with a unit of the stored key, a key that ended first is less. */
+        private int compareUnit(String key, int index, int unit) {
+            return index < key.length() ? key.charAt(index) - unit : -1;
+        }
+    };
+}
@@ -0,0 +1,289 @@
+package BinaryTree;
+
+import java.util.Arrays;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * A red-black tree of long keys that doesn't create an object per node.
+ * Nodes are slots in parallel arrays and are referred to by their index, with links stored as indexes as well.
+ * This avoids boxing the keys and the per-node object overhead, and lookups don't allocate anything.
+ * Inserts and deletes rebalance with {@link RedBlackProcedures}, so the height stays logarithmic. <br>
+ * Node indexes stay valid until that node is deleted, after which the slot may be reused by a later insert.
+ * Missing nodes are represented by {@link #NIL}.
+ * Supports search, minimum, maximum, predecessor, successor, insert, delete.
+ * NOTE: There is no validation that a node index is currently in use.
+ */
+public class LongSearchTree {
+
+    /** The index used for missing nodes */
+    public static final int NIL = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int[] parents = new int[INITIAL_CAPACITY];
+    private int[] lefts = new int[INITIAL_CAPACITY];
+    private int[] rights = new int[INITIAL_CAPACITY];
+    private boolean[] reds = new boolean[INITIAL_CAPACITY];
+    private int root = NIL;
+    private int size;
+    // number of slots that have ever been used, slots after this are untouched
+    private int used;
+    // deleted slots are chained through the left links
+    private int free = NIL;
+    private final Links links = new Links();
+
+    /**
+     * Finds a node matching a given key.
+     * @param key key to search for
+     * @return the node matching the key or NIL if none exists
+     */
+    public int search(long key) {
+        int node = root;
+        while (node != NIL && keys[node] != key) {
+            node = key < keys[node] ? lefts[node] : rights[node];
+        }
+        return node;
+    }
+
+    /**
+     * @param key key to search for
+     * @return whether the key is in the tree
+     */
+    public boolean contains(long key) {
+        return search(key) != NIL;
+    }
+
+    /**
+     * @param node node index
+     * @return the key of the node
+     */
+    public long key(int node) {
+        return keys[node];
+    }
+
+    /**
+     * Finds the minimum node of the tree.
+     * Throws a runtime exception if the tree is empty.
+     * @return minimum node
+     */
+    public int minimum() {
+        if (root == NIL) {
+            throw new RuntimeException("Get minimum failed: tree is empty");
+        }
+        return minimum(root);
+    }
+
+    /**
+     * Finds the maximum node of the tree.
+     * Throws a runtime exception if the tree is empty.
+     * @return maximum node
+     */
+    public int maximum() {
+        if (root == NIL) {
+            throw new RuntimeException("Get maximum failed: tree is empty");
+        }
+        return maximum(root);
+    }
+
+    /**
+     * Finds the predecessor of a node.
+     * Throws a runtime exception if the node is NIL.
+     * @param node node to be operated on
+     * @return predecessor of the node or NIL if none exists
+     */
+    public int predecessor(int node) {
+        if (node == NIL) {
+            throw new RuntimeException("Get predecessor failed: node is NIL");
+        }
+        if (lefts[node] != NIL) {
+            return maximum(lefts[node]);
+        }
+        int predecessor = parents[node];
+        while (predecessor != NIL && node == lefts[predecessor]) {
+            node = predecessor;
+            predecessor = parents[node];
+        }
+        return predecessor;
+    }
+
+    /**
+     * Finds the successor of a node.
+     * Throws a runtime exception if the node is NIL.
+     * @param node node to be operated on
+     * @return successor of the node or NIL if none exists
+     */
+    public int successor(int node) {
+        if (node == NIL) {
+            throw new RuntimeException("Get successor failed: node is NIL");
+        }
+        if (rights[node] != NIL) {
+            return minimum(rights[node]);
+        }
+        int successor = parents[node];
+        while (successor != NIL && node == rights[successor]) {
+            node = successor;
+            successor = parents[node];
+        }
+        return successor;
+    }
+
+    /**
+     * Inserts a key into the tree.
+     * Throws a runtime exception if the key already exists.
+     * @param key the key to be added
+     * @return added node
+     */
+    public int insert(long key) {
+        // find the parent node to insert on
+        int parent = NIL;
+        int next = root;
+        while (next != NIL) {
+            parent = next;
+            if (key < keys[parent]) {
+                next = lefts[parent];
+            } else if (key > keys[parent]) {
+                next = rights[parent];
+            } else {
+                throw new RuntimeException("Insert failed: element already present in tree");
+            }
+        }
+        int node = allocate();
+        keys[node] = key;
+        parents[node] = parent;
+        reds[node] = false;
+        lefts[node] = NIL;
+        rights[node] = NIL;
+        if (parent == NIL) {
+            root = node;
+        } else if (key < keys[parent]) {
+            lefts[parent] = node;
+        } else {
+            rights[parent] = node;
+        }
+        RedBlackProcedures.insertFixup(links, node);
+        size++;
+        return node;
+    }
+
+    /**
+     * Deletes a node from the tree and rebalances it. Other nodes keep their indexes and keys.
+     * Throws a runtime exception if the node is NIL.
+     * @param node node to be deleted
+     */
+    public void delete(int node) {
+        if (node == NIL) {
+            throw new RuntimeException("Delete failed: element not present in tree");
+        }
+        RedBlackProcedures.delete(links, node);
+        lefts[node] = free;
+        free = node;
+        size--;
+    }
+
+    /** @return the tree's root node or NIL if the tree is empty */
+    public int root() {
+        return root;
+    }
+
+    /** @return the size of the tree */
+    public int size() {
+        return size;
+    }
+
+    /** @return a sorted array of the keys in the tree */
+    public long[] sorted() {
+        long[] sorted = new long[size];
+        int i = 0;
+        for (int node = root == NIL ? NIL : minimum(root); node != NIL; node = successor(node)) {
+            sorted[i++] = keys[node];
+        }
+        return sorted;
+    }
+
+    private int minimum(int node) {
+        while (lefts[node] != NIL) {
+            node = lefts[node];
+        }
+        return node;
+    }
+
+    private int maximum(int node) {
+        while (rights[node] != NIL) {
+            node = rights[node];
+        }
+        return node;
+    }
+
+    /** @return an unused slot, reusing deleted slots first and growing the arrays when full */
+    private int allocate() {
+        if (free != NIL) {
+            int node = free;
+            free = lefts[node];
+            return node;
+        }
+        if (used == keys.length) {
+            int capacity = keys.length + (keys.length >> 1);
+            keys = Arrays.copyOf(keys, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            lefts = Arrays.copyOf(lefts, capacity);
+            rights = Arrays.copyOf(rights, capacity);
+            reds = Arrays.copyOf(reds, capacity);
+        }
+        return used++;
+    }
+
+    /** Gives {@link RedBlackProcedures} access to the links and colors of the slots. */
+    private class Links implements RedBlackProcedures.IndexedTree {
+
+        @Override
+        public int root() {
+            return root;
+        }
+
+        @Override
+        public void setRoot(int node) {
+            root = node;
+        }
+
+        @Override
+        public int parent(int node) {
+            return parents[node];
+        }
+
+        @Override
+        public int left(int node) {
+            return lefts[node];
+        }
+
+        @Override
+        public int right(int node) {
+            return rights[node];
+        }
+
+        @Override
+        public void setParent(int node, int parent) {
+            parents[node] = parent;
+        }
+
+        @Override
+        public void setLeft(int node, int left) {
+            lefts[node] = left;
+        }
+
+        @Override
+        public void setRight(int node, int right) {
+            rights[node] = right;
+        }
+
+        @Override
+        public boolean isRed(int node) {
+            return reds[node];
+        }
+
+        @Override
+        public void setRed(int node, boolean red) {
+            reds[node] = red;
+        }
+    }
+}
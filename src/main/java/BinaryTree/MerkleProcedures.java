@@ -0,0 +1,444 @@
+package BinaryTree;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * A collection of static procedures that hash the keys of trees and snapshots, and find the keys that differ
+ * between two of them by comparing hashes instead of whole key lists. <br>
+ * The hash of a subtree is the sum of a 64-bit hash of each key, so it depends only on which keys are in the subtree
+ * and not on the shape of the tree, and two trees with different shapes can still be compared range by range.
+ * Keys are hashed by their contents, see {@link #keyHash(Object)}, or by a key hash given by the caller for key
+ * types whose hashCodes aren't enough to tell them apart. Two sets of keys only look the same to the diff when their
+ * 64-bit sums collide. <br>
+ * Nodes keep their subtree hash once it is computed. Inserts, deletes and rotations mark the nodes they change
+ * as out of date, and the next hash or diff recomputes only those, so keeping hashes costs nothing until they are
+ * used and then costs about as much as the changes since. Stored hashes belong to the key hash they were made with,
+ * so a tree should always be hashed with the same one. Like searches, which write depths into nodes,
+ * hashing writes to the nodes, so a tree shouldn't be hashed or diffed from several threads at once.
+ */
+public class MerkleProcedures {
+
+    /** {@link #keyHash(Object)} as a function, a single instance so snapshots can tell it is the one they cached */
+    static final ToLongFunction<Object> DEFAULT_KEY_HASH = MerkleProcedures::keyHash;
+
+    /**
+     * Hashes a key by its contents. Integral numbers and characters are hashed by their values and floating point
+     * numbers by their bits, so different values never share a hash. Strings and byte arrays are hashed over all of
+     * their contents to 64 bits. Other keys fall back to their hashCode, and keys with equal hashCodes get the same
+     * hash, so trees of such keys should be given a key hash that looks at their contents.
+     * @param key key to hash, can be null
+     * @return the key's contribution to the hash of a set of keys
+     */
+    public static long keyHash(Object key) {
+        if (key == null) {
+            return 0;
+        }
+        long value;
+        if (key instanceof Long || key instanceof Integer || key instanceof Short || key instanceof Byte) {
+            value = ((Number) key).longValue();
+        } else if (key instanceof Double || key instanceof Float) {
+            value = Double.doubleToLongBits(((Number) key).doubleValue());
+        } else if (key instanceof Character) {
+            value = (Character) key;
+        } else if (key instanceof String) {
+            value = stringHash((String) key);
+        } else if (key instanceof byte[]) {
+            value = bytesHash((byte[]) key);
+        } else {
+            value = key.hashCode();
+        }
+        return mix(value);
+    }
+
+    /** Hashes the characters of a string to 64 bits, each step is a bijection of the hash so far for a character. */
+    private static long stringHash(String key) {
+        long hash = key.length();
+        for (int i = 0; i < key.length(); i++) {
+            hash = Long.rotateLeft(hash ^ key.charAt(i) * 0x87c37b91114253d5L, 31) * 0x4cf5ad432745937fL;
+        }
+        return hash;
+    }
+
+    /** Hashes the bytes of an array to 64 bits the same way as {@link #stringHash(String)}. */
+    private static long bytesHash(byte[] key) {
+        long hash = key.length;
+        for (byte b : key) {
+            hash = Long.rotateLeft(hash ^ (b & 0xff) * 0x87c37b91114253d5L, 31) * 0x4cf5ad432745937fL;
+        }
+        return hash;
+    }
+
+    private static long mix(long value) {
+        // the finalizer of MurmurHash3, which is a bijection, so different values get different hashes,
+        // applied after an offset since it maps 0 to 0 and a key hashing to 0 would be invisible in a sum
+        long hash = value ^ 0x9e3779b97f4a7c15L;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * Finds the hash of a subtree's keys, computing the hashes of any nodes that are out of date.
+     * @param root root of the subtree, can be null
+     * @param <T> node key type
+     * @return the sum of the key hashes of the subtree, 0 for an empty tree
+     */
+    public static <T> long hash(Node<T> root) {
+        return hash(root, DEFAULT_KEY_HASH);
+    }
+
+    /**
+     * Finds the hash of a subtree's keys with a given key hash, see {@link #hash(Node)}.
+     * @param root root of the subtree, can be null
+     * @param keyHash hashes a key to its contribution, the same one every time the tree is hashed
+     * @param <T> node key type
+     * @return the sum of the key hashes of the subtree, 0 for an empty tree
+     */
+    public static <T> long hash(Node<T> root, ToLongFunction<? super T> keyHash) {
+        if (root == null) {
+            return 0;
+        }
+        // an explicit postorder walk that skips subtrees which are already hashed
+        List<Node<T>> stack = new ArrayList<>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            Node<T> node = stack.get(stack.size() - 1);
+            if (node.isHashed()) {
+                stack.remove(stack.size() - 1);
+            } else if (node.getLeft() != null && !node.getLeft().isHashed()) {
+                stack.add(node.getLeft());
+            } else if (node.getRight() != null && !node.getRight().isHashed()) {
+                stack.add(node.getRight());
+            } else {
+                stack.remove(stack.size() - 1);
+                node.setHash(keyHash.applyAsLong(node.getKey()) + storedHash(node.getLeft())
+                        + storedHash(node.getRight()));
+            }
+        }
+        return root.getHash();
+    }
+
+    /**
+     * Finds the keys that are in only one of two trees. Ranges of keys whose hashes match in both trees are skipped,
+     * and the rest are split at the first tree's node closest to the root, so the search follows the subtrees of
+     * the first tree whose hashes differ. With balanced trees, the time taken grows with the number of differences
+     * and not with the size of the trees. Differences are reported in increasing order.
+     * @param first root of the first tree, can be null
+     * @param second root of the second tree, can be null
+     * @param onlyFirst called with each key that is only in the first tree
+     * @param onlySecond called with each key that is only in the second tree
+     * @param <T> node key type
+     */
+    public static <T extends Comparable<T>> void diff(Node<T> first, Node<T> second, Consumer<? super T> onlyFirst,
+                                                      Consumer<? super T> onlySecond) {
+        diff(first, second, Comparator.naturalOrder(), onlyFirst, onlySecond);
+    }
+
+    /**
+     * Finds the keys that are in only one of two trees ordered by the same comparator,
+     * see {@link #diff(Node, Node, Consumer, Consumer)}.
+     * @param first root of the first tree, can be null
+     * @param second root of the second tree, can be null
+     * @param comparator order of both trees' keys
+     * @param onlyFirst called with each key that is only in the first tree
+     * @param onlySecond called with each key that is only in the second tree
+     * @param <T> node key type
+     */
+    public static <T> void diff(Node<T> first, Node<T> second, Comparator<? super T> comparator,
+                                Consumer<? super T> onlyFirst, Consumer<? super T> onlySecond) {
+        diff(first, second, comparator, DEFAULT_KEY_HASH, onlyFirst, onlySecond);
+    }
+
+    /**
+     * Finds the keys that are in only one of two trees ordered by the same comparator and hashed with the same
+     * key hash, see {@link #diff(Node, Node, Consumer, Consumer)}.
+     * @param first root of the first tree, can be null
+     * @param second root of the second tree, can be null
+     * @param comparator order of both trees' keys
+     * @param keyHash hashes a key to its contribution, see {@link #hash(Node, ToLongFunction)}
+     * @param onlyFirst called with each key that is only in the first tree
+     * @param onlySecond called with each key that is only in the second tree
+     * @param <T> node key type
+     */
+    public static <T> void diff(Node<T> first, Node<T> second, Comparator<? super T> comparator,
+                                ToLongFunction<? super T> keyHash, Consumer<? super T> onlyFirst,
+                                Consumer<? super T> onlySecond) {
+        diff(new TreeKeys<>(first, comparator, keyHash), new TreeKeys<>(second, comparator, keyHash),
+                onlyFirst, onlySecond);
+    }
+
+    /**
+     * Finds the keys that are in only one of a tree and a snapshot, see {@link #diff(Node, Node, Consumer, Consumer)}.
+     * The first diff with a snapshot decodes all of its keys to hash them, see {@link TreeSnapshot#contentHash()}.
+     * @param root root of the tree, can be null
+     * @param snapshot the snapshot
+     * @param onlyTree called with each key that is only in the tree
+     * @param onlySnapshot called with each key that is only in the snapshot
+     * @param <T> node key type
+     */
+    public static <T> void diff(Node<T> root, TreeSnapshot<T> snapshot, Consumer<? super T> onlyTree,
+                                Consumer<? super T> onlySnapshot) {
+        diff(root, snapshot, DEFAULT_KEY_HASH, onlyTree, onlySnapshot);
+    }
+
+    /**
+     * Finds the keys that are in only one of a tree and a snapshot, hashing both with the same key hash,
+     * see {@link #diff(Node, TreeSnapshot, Consumer, Consumer)}.
+     * @param root root of the tree, can be null
+     * @param snapshot the snapshot
+     * @param keyHash hashes a key to its contribution, see {@link #hash(Node, ToLongFunction)}
+     * @param onlyTree called with each key that is only in the tree
+     * @param onlySnapshot called with each key that is only in the snapshot
+     * @param <T> node key type
+     */
+    public static <T> void diff(Node<T> root, TreeSnapshot<T> snapshot, ToLongFunction<? super T> keyHash,
+                                Consumer<? super T> onlyTree, Consumer<? super T> onlySnapshot) {
+        diff(new TreeKeys<>(root, SearchTreeProcedures.naturalOrder(), keyHash), new SnapshotKeys<>(snapshot, keyHash),
+                onlyTree, onlySnapshot);
+    }
+
+    /**
+     * Finds the keys that are in only one of two snapshots, see {@link #diff(Node, Node, Consumer, Consumer)}.
+     * Ranges are split at the middle key of the first snapshot.
+     * @param first the first snapshot
+     * @param second the second snapshot
+     * @param onlyFirst called with each key that is only in the first snapshot
+     * @param onlySecond called with each key that is only in the second snapshot
+     * @param <T> key type
+     */
+    public static <T> void diff(TreeSnapshot<T> first, TreeSnapshot<T> second, Consumer<? super T> onlyFirst,
+                                Consumer<? super T> onlySecond) {
+        diff(first, second, DEFAULT_KEY_HASH, onlyFirst, onlySecond);
+    }
+
+    /**
+     * Finds the keys that are in only one of two snapshots, hashing both with the same key hash,
+     * see {@link #diff(TreeSnapshot, TreeSnapshot, Consumer, Consumer)}.
+     * @param first the first snapshot
+     * @param second the second snapshot
+     * @param keyHash hashes a key to its contribution, see {@link #hash(Node, ToLongFunction)}
+     * @param onlyFirst called with each key that is only in the first snapshot
+     * @param onlySecond called with each key that is only in the second snapshot
+     * @param <T> key type
+     */
+    public static <T> void diff(TreeSnapshot<T> first, TreeSnapshot<T> second, ToLongFunction<? super T> keyHash,
+                                Consumer<? super T> onlyFirst, Consumer<? super T> onlySecond) {
+        diff(new SnapshotKeys<>(first, keyHash), new SnapshotKeys<>(second, keyHash), onlyFirst, onlySecond);
+    }
+
+    private static <T> void diff(SortedKeys<T> first, SortedKeys<T> second, Consumer<? super T> onlyFirst,
+                                 Consumer<? super T> onlySecond) {
+        // open ranges of keys still to compare, null bounds are unbounded, the lowest range is on top
+        // along with the pivots between them that are only in the first set, so keys are reported in order
+        ArrayDeque<Range<T>> ranges = new ArrayDeque<>();
+        ranges.push(new Range<>(null, null, false));
+        while (!ranges.isEmpty()) {
+            Range<T> range = ranges.pop();
+            T low = range.low;
+            T high = range.high;
+            if (range.pivot) {
+                onlyFirst.accept(low);
+                continue;
+            }
+            if (first.hash(low, high) == second.hash(low, high)) {
+                continue;
+            }
+            T pivot = first.pivot(low, high);
+            if (pivot == null) {
+                second.forEach(low, high, onlySecond);
+            } else if (second.pivot(low, high) == null) {
+                first.forEach(low, high, onlyFirst);
+            } else {
+                ranges.push(new Range<>(pivot, high, false));
+                if (!second.contains(pivot)) {
+                    ranges.push(new Range<>(pivot, pivot, true));
+                }
+                ranges.push(new Range<>(low, pivot, false));
+            }
+        }
+    }
+
+    private static long storedHash(Node<?> node) {
+        return node == null ? 0 : node.getHash();
+    }
+
+    private static final class Range<T> {
+        private final T low;
+        private final T high;
+        private final boolean pivot; // whether this is a single key to report instead of a range
+
+        Range(T low, T high, boolean pivot) {
+            this.low = low;
+            this.high = high;
+            this.pivot = pivot;
+        }
+    }
+
+    /** The operations a diff needs on a sorted set of keys, for ranges that exclude both bounds. */
+    private interface SortedKeys<T> {
+
+        /** @return the sum of the key hashes of the keys in the range */
+        long hash(T low, T high);
+
+        /** @return a key in the range that splits it roughly in half, or null if the range is empty */
+        T pivot(T low, T high);
+
+        boolean contains(T key);
+
+        /** Runs an action on the keys in the range in increasing order. */
+        void forEach(T low, T high, Consumer<? super T> action);
+    }
+
+    private static final class TreeKeys<T> implements SortedKeys<T> {
+
+        private final Node<T> root;
+        private final Comparator<? super T> comparator;
+        private final ToLongFunction<? super T> keyHash;
+
+        TreeKeys(Node<T> root, Comparator<? super T> comparator, ToLongFunction<? super T> keyHash) {
+            this.root = root;
+            this.comparator = comparator;
+            this.keyHash = keyHash;
+            MerkleProcedures.hash(root, keyHash); // brings every stored hash up to date
+        }
+
+        /** @return the node closest to the root whose key is in the range, which is the root of the range */
+        private Node<T> top(T low, T high) {
+            Node<T> node = root;
+            while (node != null) {
+                if (low != null && comparator.compare(node.getKey(), low) <= 0) {
+                    node = node.getRight();
+                } else if (high != null && comparator.compare(node.getKey(), high) >= 0) {
+                    node = node.getLeft();
+                } else {
+                    break;
+                }
+            }
+            return node;
+        }
+
+        @Override
+        public long hash(T low, T high) {
+            Node<T> top = top(low, high);
+            if (top == null) {
+                return 0;
+            }
+            long hash = keyHash.applyAsLong(top.getKey());
+            // below the top, the range only cuts the left subtree at low and the right subtree at high
+            Node<T> node = top.getLeft();
+            while (node != null) {
+                if (low == null) {
+                    hash += node.getHash();
+                    break;
+                }
+                if (comparator.compare(node.getKey(), low) > 0) {
+                    hash += keyHash.applyAsLong(node.getKey()) + storedHash(node.getRight());
+                    node = node.getLeft();
+                } else {
+                    node = node.getRight();
+                }
+            }
+            node = top.getRight();
+            while (node != null) {
+                if (high == null) {
+                    hash += node.getHash();
+                    break;
+                }
+                if (comparator.compare(node.getKey(), high) < 0) {
+                    hash += keyHash.applyAsLong(node.getKey()) + storedHash(node.getLeft());
+                    node = node.getRight();
+                } else {
+                    node = node.getLeft();
+                }
+            }
+            return hash;
+        }
+
+        @Override
+        public T pivot(T low, T high) {
+            Node<T> top = top(low, high);
+            return top == null ? null : top.getKey();
+        }
+
+        @Override
+        public boolean contains(T key) {
+            return SearchTreeProcedures.search(root, key, comparator) != null;
+        }
+
+        @Override
+        public void forEach(T low, T high, Consumer<? super T> action) {
+            List<Node<T>> stack = new ArrayList<>();
+            Node<T> node = top(low, high);
+            while (node != null || !stack.isEmpty()) {
+                while (node != null) {
+                    if (low != null && comparator.compare(node.getKey(), low) <= 0) {
+                        node = node.getRight();
+                    } else {
+                        stack.add(node);
+                        node = node.getLeft();
+                    }
+                }
+                node = stack.remove(stack.size() - 1);
+                if (high != null && comparator.compare(node.getKey(), high) >= 0) {
+                    return;
+                }
+                action.accept(node.getKey());
+                node = node.getRight();
+            }
+        }
+    }
+
+    private static final class SnapshotKeys<T> implements SortedKeys<T> {
+
+        private final TreeSnapshot<T> snapshot;
+        private final ToLongFunction<? super T> keyHash;
+
+        SnapshotKeys(TreeSnapshot<T> snapshot, ToLongFunction<? super T> keyHash) {
+            this.snapshot = snapshot;
+            this.keyHash = keyHash;
+        }
+
+        private int start(T low) {
+            return low == null ? 0 : snapshot.upperBound(low);
+        }
+
+        private int end(T high) {
+            return high == null ? snapshot.size() : snapshot.lowerBound(high);
+        }
+
+        @Override
+        public long hash(T low, T high) {
+            int start = start(low);
+            int end = end(high);
+            return start < end ? snapshot.hash(start, end, keyHash) : 0;
+        }
+
+        @Override
+        public T pivot(T low, T high) {
+            int start = start(low);
+            int end = end(high);
+            return start < end ? snapshot.key((start + end) >>> 1) : null;
+        }
+
+        @Override
+        public boolean contains(T key) {
+            return snapshot.contains(key);
+        }
+
+        @Override
+        public void forEach(T low, T high, Consumer<? super T> action) {
+            for (int i = start(low), end = end(high); i < end; i++) {
+                action.accept(snapshot.key(i));
+            }
+        }
+    }
+}
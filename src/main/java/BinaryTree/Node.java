@@ -1,11 +1,14 @@
 package BinaryTree;
 
 /**
- * Last edited 12/22/2021 <br>
+ * Last edited 10/16/2026 <br>
  * A node in a binary tree contains a key, a reference to its parent node,
  * a left child node, and a right child node.
  * This class comes with public getters and protected setters for all fields.
- * There's also an additional data field for operations to give additional data.
+ * There's also an additional data field for operations to give additional data,
+ * and a color bit used by balanced trees.
+ * Each node also keeps the size of its subtree, which tree operations keep up to date,
+ * and room for a hash of its subtree's keys, which is only filled in when needed, see {@link MerkleProcedures}.
  * @author Benjamin Friedman
  * @param <T> the type of the key
  */
@@ -13,6 +16,10 @@ public class Node<T> {
     
     private T key;
     private int data;
+    private boolean red;
+    private int size;
+    private boolean hashed;
+    private long hash;
     private Node<T> parent;
     private Node<T> left;
     private Node<T> right;
@@ -22,6 +29,7 @@ public class Node<T> {
         this.parent = parent;
         this.left = left;
         this.right = right;
+        updateSize();
     }
 
     public T getKey() {
@@ -42,6 +50,15 @@ public class Node<T> {
 
     protected void setKey(T key) {
         this.key = key;
+        hashed = false;
+    }
+
+    /**
+     * Copies the key of another node to this node, along with anything kept about the key.
+     * @param node node to copy from
+     */
+    protected void copyKey(Node<T> node) {
+        setKey(node.getKey());
     }
 
     protected void setParent(Node<T> parent) {
@@ -64,8 +81,45 @@ public class Node<T> {
         this.data = data;
     }
 
+    /** @return whether the node is colored red, only meaningful in a red-black tree */
+    public boolean isRed() {
+        return red;
+    }
+
+    protected void setRed(boolean red) {
+        this.red = red;
+    }
+
+    /** @return the number of nodes in the subtree rooted at this node, including itself */
+    public int getSize() {
+        return size;
+    }
+
+    /** Recalculates the subtree size from the sizes of the children, and marks the subtree hash out of date. */
+    protected void updateSize() {
+        size = 1 + (left == null ? 0 : left.size) + (right == null ? 0 : right.size);
+        hashed = false;
+    }
+
+    /** @return whether the subtree hash is up to date, which it isn't after the subtree or the key changes */
+    protected boolean isHashed() {
+        return hashed;
+    }
+
+    /** @return the hash of the keys in the subtree, only meaningful if {@link #isHashed()} */
+    protected long getHash() {
+        return hash;
+    }
+
+    /** Sets the hash of the keys in the subtree and marks it up to date. */
+    protected void setHash(long hash) {
+        this.hash = hash;
+        hashed = true;
+    }
+
     /**
      * Copies a nodes data to this node.
+     * The copied children are re-parented to this node.
      * @param node node to copy from
      * @param copyParent whether the parent field should be copied
      */
@@ -76,6 +130,28 @@ public class Node<T> {
         }
         left = node.getLeft();
         right = node.getRight();
+        if (left != null) {
+            left.parent = this;
+        }
+        if (right != null) {
+            right.parent = this;
+        }
+        updateSize();
+    }
+
+    /**
+     * Clears the node's links, color and data so it can be reused for a new key.
+     * @param key new key, or null to let the old key be garbage collected
+     */
+    protected void reset(T key) {
+        this.key = key;
+        data = 0;
+        red = false;
+        parent = null;
+        left = null;
+        right = null;
+        size = 1;
+        hashed = false;
     }
 
     /** @return a string representation of the key */
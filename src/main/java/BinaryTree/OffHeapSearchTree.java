@@ -0,0 +1,378 @@
+package BinaryTree;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * A red-black tree whose nodes live outside the Java heap, for trees too large for an object per node.
+ * Nodes are fixed-width slots in direct buffers allocated in chunks, laid out as the key followed by
+ * the parent, left and right links, which are slot indexes. Keys are stored with a {@link FixedWidthCodec}.
+ * The color is packed into the top bit of the parent link, so balancing costs no extra space,
+ * and inserts and deletes rebalance with {@link RedBlackProcedures} so the height stays logarithmic. <br>
+ * The heap only holds the chunk table, so the garbage collector has almost nothing to trace no matter how
+ * many keys the tree holds. Deleted slots are chained into a free list and reused by later inserts,
+ * and {@link #clear()} releases all chunks. <br>
+ * Like {@link IntSearchTree}, nodes are referred to by index and missing nodes are {@link #NIL}.
+ * Supports search, minimum, maximum, predecessor, successor, insert, delete.
+ * NOTE: There is no validation that a node index is currently in use.
+ * @param <T> the key type
+ */
+public class OffHeapSearchTree<T> {
+
+    /** The index used for missing nodes */
+    public static final int NIL = -1;
+
+    // each chunk holds 2^CHUNK_SHIFT slots
+    private static final int CHUNK_SHIFT = 16;
+    private static final int CHUNK_SLOTS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SLOTS - 1;
+
+    private final FixedWidthCodec<T> codec;
+    private final int slotWidth;
+    private final int parentOffset;
+    private final int leftOffset;
+    private final int rightOffset;
+    private ByteBuffer[] chunks = new ByteBuffer[1];
+    private int chunkCount;
+    private int root = NIL;
+    private int size;
+    // number of slots that have ever been used, slots after this are untouched
+    private int used;
+    // deleted slots are chained through the left links
+    private int free = NIL;
+    private final Links links = new Links();
+
+    /**
+     * Creates an empty tree, no memory is allocated until the first insert.
+     * @param codec codec for the keys
+     */
+    public OffHeapSearchTree(FixedWidthCodec<T> codec) {
+        this.codec = codec;
+        // keep the links 4 byte aligned
+        parentOffset = (codec.width() + 3) & ~3;
+        leftOffset = parentOffset + Integer.BYTES;
+        rightOffset = leftOffset + Integer.BYTES;
+        slotWidth = rightOffset + Integer.BYTES;
+        if ((long) slotWidth * CHUNK_SLOTS > Integer.MAX_VALUE) {
+            throw new RuntimeException("Create tree failed: key width too large");
+        }
+    }
+
+    /**
+     * Finds a node matching a given key.
+     * @param key key to search for
+     * @return the node matching the key or NIL if none exists
+     */
+    public int search(T key) {
+        int node = root;
+        while (node != NIL) {
+            int comparison = codec.compare(key, chunk(node), offset(node));
+            if (comparison < 0) {
+                node = left(node);
+            } else if (comparison > 0) {
+                node = right(node);
+            } else {
+                return node;
+            }
+        }
+        return NIL;
+    }
+
+    /**
+     * @param key key to search for
+     * @return whether the key is in the tree
+     */
+    public boolean contains(T key) {
+        return search(key) != NIL;
+    }
+
+    /**
+     * @param node node index
+     * @return the key of the node
+     */
+    public T key(int node) {
+        return codec.read(chunk(node), offset(node));
+    }
+
+    /**
+     * Finds the minimum node of the tree.
+     * Throws a runtime exception if the tree is empty.
+     * @return minimum node
+     */
+    public int minimum() {
+        if (root == NIL) {
+            throw new RuntimeException("Get minimum failed: tree is empty");
+        }
+        return minimum(root);
+    }
+
+    /**
+     * Finds the maximum node of the tree.
+     * Throws a runtime exception if the tree is empty.
+     * @return maximum node
+     */
+    public int maximum() {
+        if (root == NIL) {
+            throw new RuntimeException("Get maximum failed: tree is empty");
+        }
+        return maximum(root);
+    }
+
+    /**
+     * Finds the predecessor of a node.
+     * Throws a runtime exception if the node is NIL.
+     * @param node node to be operated on
+     * @return predecessor of the node or NIL if none exists
+     */
+    public int predecessor(int node) {
+        if (node == NIL) {
+            throw new RuntimeException("Get predecessor failed: node is NIL");
+        }
+        if (left(node) != NIL) {
+            return maximum(left(node));
+        }
+        int predecessor = parent(node);
+        while (predecessor != NIL && node == left(predecessor)) {
+            node = predecessor;
+            predecessor = parent(node);
+        }
+        return predecessor;
+    }
+
+    /**
+     * Finds the successor of a node.
+     * Throws a runtime exception if the node is NIL.
+     * @param node node to be operated on
+     * @return successor of the node or NIL if none exists
+     */
+    public int successor(int node) {
+        if (node == NIL) {
+            throw new RuntimeException("Get successor failed: node is NIL");
+        }
+        if (right(node) != NIL) {
+            return minimum(right(node));
+        }
+        int successor = parent(node);
+        while (successor != NIL && node == right(successor)) {
+            node = successor;
+            successor = parent(node);
+        }
+        return successor;
+    }
+
+    /**
+     * Inserts a key into the tree.
+     * Throws a runtime exception if the key already exists.
+     * @param key the key to be added
+     * @return added node
+     */
+    public int insert(T key) {
+        // find the parent node to insert on
+        int parent = NIL;
+        int comparison = 0;
+        int next = root;
+        while (next != NIL) {
+            parent = next;
+            comparison = codec.compare(key, chunk(parent), offset(parent));
+            if (comparison < 0) {
+                next = left(parent);
+            } else if (comparison > 0) {
+                next = right(parent);
+            } else {
+                throw new RuntimeException("Insert failed: element already present in tree");
+            }
+        }
+        int node = allocate();
+        codec.write(chunk(node), offset(node), key);
+        setLinks(node, parent, false);
+        setLeft(node, NIL);
+        setRight(node, NIL);
+        if (parent == NIL) {
+            root = node;
+        } else if (comparison < 0) {
+            setLeft(parent, node);
+        } else {
+            setRight(parent, node);
+        }
+        RedBlackProcedures.insertFixup(links, node);
+        size++;
+        return node;
+    }
+
+    /**
+     * Deletes a node from the tree and rebalances it. Other nodes keep their indexes and keys.
+     * Throws a runtime exception if the node is NIL.
+     * @param node node to be deleted
+     */
+    public void delete(int node) {
+        if (node == NIL) {
+            throw new RuntimeException("Delete failed: element not present in tree");
+        }
+        RedBlackProcedures.delete(links, node);
+        setLeft(node, free);
+        free = node;
+        size--;
+    }
+
+    /** Removes every key and releases the off-heap memory to the garbage collector. */
+    public void clear() {
+        chunks = new ByteBuffer[1];
+        chunkCount = 0;
+        root = NIL;
+        size = 0;
+        used = 0;
+        free = NIL;
+    }
+
+    /** @return the tree's root node or NIL if the tree is empty */
+    public int root() {
+        return root;
+    }
+
+    /** @return the size of the tree */
+    public int size() {
+        return size;
+    }
+
+    /** @return the number of off-heap bytes allocated for nodes */
+    public long allocatedBytes() {
+        return (long) chunkCount * CHUNK_SLOTS * slotWidth;
+    }
+
+    /** @return a sorted list of the keys in the tree */
+    public List<T> sorted() {
+        List<T> sorted = new ArrayList<>(size);
+        for (int node = root == NIL ? NIL : minimum(root); node != NIL; node = successor(node)) {
+            sorted.add(key(node));
+        }
+        return sorted;
+    }
+
+    private int minimum(int node) {
+        while (left(node) != NIL) {
+            node = left(node);
+        }
+        return node;
+    }
+
+    private int maximum(int node) {
+        while (right(node) != NIL) {
+            node = right(node);
+        }
+        return node;
+    }
+
+    /** @return an unused slot, reusing deleted slots first and allocating a new chunk when full */
+    private int allocate() {
+        if (free != NIL) {
+            int node = free;
+            free = left(node);
+            return node;
+        }
+        if (used == Integer.MAX_VALUE) {
+            throw new RuntimeException("Insert failed: tree is full");
+        }
+        if (used == chunkCount * CHUNK_SLOTS) {
+            if (chunkCount == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunks.length * 2);
+            }
+            chunks[chunkCount++] = ByteBuffer.allocateDirect(CHUNK_SLOTS * slotWidth).order(ByteOrder.nativeOrder());
+        }
+        return used++;
+    }
+
+    private ByteBuffer chunk(int node) {
+        return chunks[node >>> CHUNK_SHIFT];
+    }
+
+    private int offset(int node) {
+        return (node & CHUNK_MASK) * slotWidth;
+    }
+
+    // the parent link is stored plus one so NIL fits in the lower 31 bits, and the top bit is set for red nodes
+    private int parent(int node) {
+        return (chunk(node).getInt(offset(node) + parentOffset) & Integer.MAX_VALUE) - 1;
+    }
+
+    private boolean isRed(int node) {
+        return chunk(node).getInt(offset(node) + parentOffset) < 0;
+    }
+
+    private int left(int node) {
+        return chunk(node).getInt(offset(node) + leftOffset);
+    }
+
+    private int right(int node) {
+        return chunk(node).getInt(offset(node) + rightOffset);
+    }
+
+    private void setLinks(int node, int parent, boolean red) {
+        chunk(node).putInt(offset(node) + parentOffset, (red ? Integer.MIN_VALUE : 0) | (parent + 1));
+    }
+
+    private void setLeft(int node, int left) {
+        chunk(node).putInt(offset(node) + leftOffset, left);
+    }
+
+    private void setRight(int node, int right) {
+        chunk(node).putInt(offset(node) + rightOffset, right);
+    }
+
+    /** Gives {@link RedBlackProcedures} access to the links and colors of the slots. */
+    private class Links implements RedBlackProcedures.IndexedTree {
+
+        @Override
+        public int root() {
+            return root;
+        }
+
+        @Override
+        public void setRoot(int node) {
+            root = node;
+        }
+
+        @Override
+        public int parent(int node) {
+            return OffHeapSearchTree.this.parent(node);
+        }
+
+        @Override
+        public int left(int node) {
+            return OffHeapSearchTree.this.left(node);
+        }
+
+        @Override
+        public int right(int node) {
+            return OffHeapSearchTree.this.right(node);
+        }
+
+        @Override
+        public void setParent(int node, int parent) {
+            setLinks(node, parent, isRed(node));
+        }
+
+        @Override
+        public void setLeft(int node, int left) {
+            OffHeapSearchTree.this.setLeft(node, left);
+        }
+
+        @Override
+        public void setRight(int node, int right) {
+            OffHeapSearchTree.this.setRight(node, right);
+        }
+
+        @Override
+        public boolean isRed(int node) {
+            return OffHeapSearchTree.this.isRed(node);
+        }
+
+        @Override
+        public void setRed(int node, boolean red) {
+            setLinks(node, parent(node), red);
+        }
+    }
+}
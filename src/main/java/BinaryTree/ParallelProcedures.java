@@ -0,0 +1,360 @@
+package BinaryTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * A collection of static procedures that aggregate over whole trees in parallel on the common fork-join pool. <br>
+ * Subtrees with at least {@value #PARALLEL_THRESHOLD} nodes are handed to other workers and smaller subtrees are
+ * walked without recursion, so deep or degenerate trees don't overflow the stack.
+ * The subtree sizes kept in the nodes only guide the splitting, the results never depend on them.
+ * Smaller trees run entirely on the calling thread. The tree should not be changed while running.
+ */
+public class ParallelProcedures {
+
+    // subtrees with at least this many nodes are split off into their own tasks
+    static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    /**
+     * @param root root of the tree
+     * @return the number of nodes underneath the root, counted by visiting them
+     */
+    public static int size(Node<?> root) {
+        return aggregate(root, new Aggregate<Object, int[]>() {
+            @Override
+            public int[] create() {
+                return new int[1];
+            }
+
+            @Override
+            public void accept(int[] count, Node<Object> node, int depth) {
+                count[0]++;
+            }
+
+            @Override
+            public int[] combine(int[] first, int[] second) {
+                first[0] += second[0];
+                return first;
+            }
+        })[0];
+    }
+
+    /**
+     * @param root root of the tree
+     * @return the depth of the tree
+     */
+    public static int height(Node<?> root) {
+        return aggregate(root, new Aggregate<Object, int[]>() {
+            @Override
+            public int[] create() {
+                return new int[1];
+            }
+
+            @Override
+            public void accept(int[] height, Node<Object> node, int depth) {
+                height[0] = Math.max(height[0], depth + 1);
+            }
+
+            @Override
+            public int[] combine(int[] first, int[] second) {
+                first[0] = Math.max(first[0], second[0]);
+                return first;
+            }
+        })[0];
+    }
+
+    /**
+     * Combines the keys of a tree in inorder, like {@link java.util.stream.Stream#reduce(Object, BiFunction,
+     * BinaryOperator)}. Pieces of the tree are reduced separately starting from the identity,
+     * so the accumulator and combiner should be associative and the identity should really be an identity.
+     * @param root root of the tree
+     * @param identity result for an empty piece
+     * @param accumulator adds a key to a result
+     * @param combiner joins the results of two neighbouring pieces, the first coming before the second
+     * @param <T> node key type
+     * @param <U> result type
+     * @return the combined result
+     */
+    public static <T, U> U reduce(Node<T> root, U identity, BiFunction<U, ? super T, U> accumulator,
+                                  BinaryOperator<U> combiner) {
+        return aggregate(root, new Aggregate<T, List<U>>() {
+            // a single element list serves as a mutable holder
+            @Override
+            public List<U> create() {
+                List<U> result = new ArrayList<>(1);
+                result.add(identity);
+                return result;
+            }
+
+            @Override
+            public void accept(List<U> result, Node<T> node, int depth) {
+                result.set(0, accumulator.apply(result.get(0), node.getKey()));
+            }
+
+            @Override
+            public List<U> combine(List<U> first, List<U> second) {
+                first.set(0, combiner.apply(first.get(0), second.get(0)));
+                return first;
+            }
+        }).get(0);
+    }
+
+    /**
+     * Runs an action on every key of a tree in parallel, in no particular order.
+     * The action must be safe to call from several threads at once.
+     * @param root root of the tree
+     * @param action action to run on every key
+     * @param <T> node key type
+     */
+    public static <T> void forEach(Node<T> root, Consumer<? super T> action) {
+        aggregate(root, new Aggregate<T, Object>() {
+            @Override
+            public Object create() {
+                return null;
+            }
+
+            @Override
+            public void accept(Object nothing, Node<T> node, int depth) {
+                action.accept(node.getKey());
+            }
+
+            @Override
+            public Object combine(Object first, Object second) {
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Checks the invariants every search tree keeps: keys are strictly increasing in inorder,
+     * every child links back to its parent, and every node's size is one more than the sizes of its children.
+     * Throws a runtime exception describing a broken invariant.
+     * @param root root of the tree
+     * @param <T> node key type
+     */
+    public static <T extends Comparable<T>> void validate(Node<T> root) {
+        validate(root, Comparator.naturalOrder());
+    }
+
+    /**
+     * Checks the invariants of a search tree ordered by a comparator, see {@link #validate(Node)}.
+     * Throws a runtime exception describing a broken invariant.
+     * @param root root of the tree
+     * @param comparator order of the tree's keys
+     * @param <T> node key type
+     */
+    public static <T> void validate(Node<T> root, Comparator<? super T> comparator) {
+        String error = aggregate(root, new Aggregate<T, Validation<T>>() {
+            @Override
+            public Validation<T> create() {
+                return new Validation<>();
+            }
+
+            @Override
+            public void accept(Validation<T> validation, Node<T> node, int depth) {
+                if (validation.error != null) {
+                    return;
+                }
+                Node<T> left = node.getLeft();
+                Node<T> right = node.getRight();
+                if ((left != null && left.getParent() != node) || (right != null && right.getParent() != node)) {
+                    validation.error = "child does not link back to its parent";
+                } else if (node.getSize() != 1 + sizeOf(left) + sizeOf(right)) {
+                    validation.error = "node size does not match its children";
+                } else if (validation.last != null && comparator.compare(validation.last, node.getKey()) >= 0) {
+                    validation.error = "keys are out of order";
+                }
+                if (validation.first == null) {
+                    validation.first = node.getKey();
+                }
+                validation.last = node.getKey();
+            }
+
+            @Override
+            public Validation<T> combine(Validation<T> first, Validation<T> second) {
+                if (first.error == null && second.error != null) {
+                    first.error = second.error;
+                } else if (first.error == null && first.last != null && second.first != null
+                        && comparator.compare(first.last, second.first) >= 0) {
+                    first.error = "keys are out of order";
+                }
+                if (first.first == null) {
+                    first.first = second.first;
+                }
+                if (second.last != null) {
+                    first.last = second.last;
+                }
+                return first;
+            }
+        }).error;
+        if (error != null) {
+            throw new RuntimeException("Validate failed: " + error);
+        }
+    }
+
+    private static final class Validation<T> {
+        private T first;
+        private T last;
+        private String error;
+    }
+
+    /**
+     * An aggregate over the nodes of a tree, collected into mutable containers.
+     * Each piece of the tree gets its own container, and neighbouring containers are combined in inorder.
+     * @param <T> node key type
+     * @param <A> container type
+     */
+    private interface Aggregate<T, A> {
+
+        /** @return an empty container */
+        A create();
+
+        /**
+         * Adds a node to a container, nodes are added in inorder.
+         * @param container container to add to
+         * @param node node to add
+         * @param depth depth of the node in the whole tree
+         */
+        void accept(A container, Node<T> node, int depth);
+
+        /**
+         * @param first container of the earlier piece
+         * @param second container of the later piece
+         * @return a container for both pieces, which may be first
+         */
+        A combine(A first, A second);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, A> A aggregate(Node<? extends T> root, Aggregate<T, A> aggregate) {
+        Node<T> node = (Node<T>) root;
+        if (sizeOf(node) < PARALLEL_THRESHOLD) {
+            A container = aggregate.create();
+            walk(node, 0, aggregate, container);
+            return container;
+        }
+        return ForkJoinPool.commonPool().invoke(new AggregateTask<>(node, 0, aggregate));
+    }
+
+    /**
+     * Aggregates a subtree. The task descends towards its larger side, forking off the other side when it is large
+     * and walking it directly otherwise. Finished pieces before and after the descent are kept in order,
+     * with neighbouring finished containers combined right away so only the forked tasks take up room.
+     */
+    @SuppressWarnings("serial") // tasks are never serialized
+    private static final class AggregateTask<T, A> extends RecursiveTask<A> {
+
+        private final Node<T> root;
+        private final int depth;
+        private final Aggregate<T, A> aggregate;
+
+        AggregateTask(Node<T> root, int depth, Aggregate<T, A> aggregate) {
+            this.root = root;
+            this.depth = depth;
+            this.aggregate = aggregate;
+        }
+
+        @Override
+        protected A compute() {
+            // pieces are either containers or forked tasks, the pieces after the descent are kept in reverse
+            List<Object> before = new ArrayList<>();
+            List<Object> after = new ArrayList<>();
+            Node<T> node = root;
+            int depth = this.depth;
+            while (sizeOf(node) >= PARALLEL_THRESHOLD) {
+                Node<T> left = node.getLeft();
+                Node<T> right = node.getRight();
+                A middle = aggregate.create();
+                aggregate.accept(middle, node, depth);
+                if (sizeOf(right) >= sizeOf(left)) {
+                    addBefore(before, piece(left, depth + 1));
+                    addBefore(before, middle);
+                    node = right;
+                } else {
+                    addAfter(after, piece(right, depth + 1));
+                    addAfter(after, middle);
+                    node = left;
+                }
+                depth++;
+            }
+            A result = aggregate.create();
+            walk(node, depth, aggregate, result);
+            for (int i = before.size() - 1; i >= 0; i--) {
+                result = aggregate.combine(join(before.get(i)), result);
+            }
+            for (int i = after.size() - 1; i >= 0; i--) {
+                result = aggregate.combine(result, join(after.get(i)));
+            }
+            return result;
+        }
+
+        private Object piece(Node<T> node, int depth) {
+            if (sizeOf(node) >= PARALLEL_THRESHOLD) {
+                return new AggregateTask<>(node, depth, aggregate).fork();
+            }
+            A container = aggregate.create();
+            walk(node, depth, aggregate, container);
+            return container;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void addBefore(List<Object> before, Object piece) {
+            int last = before.size() - 1;
+            if (last >= 0 && !(piece instanceof AggregateTask) && !(before.get(last) instanceof AggregateTask)) {
+                before.set(last, aggregate.combine((A) before.get(last), (A) piece));
+            } else {
+                before.add(piece);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void addAfter(List<Object> after, Object piece) {
+            int last = after.size() - 1;
+            if (last >= 0 && !(piece instanceof AggregateTask) && !(after.get(last) instanceof AggregateTask)) {
+                after.set(last, aggregate.combine((A) piece, (A) after.get(last)));
+            } else {
+                after.add(piece);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private A join(Object piece) {
+            return piece instanceof AggregateTask ? ((AggregateTask<T, A>) piece).join() : (A) piece;
+        }
+    }
+
+    /** Adds a subtree to a container in inorder, keeping the depths on an explicit stack. */
+    private static <T, A> void walk(Node<T> root, int rootDepth, Aggregate<T, A> aggregate, A container) {
+        List<Node<T>> stack = new ArrayList<>();
+        int[] depths = new int[16];
+        Node<T> node = root;
+        int depth = rootDepth;
+        while (node != null || !stack.isEmpty()) {
+            while (node != null) {
+                if (stack.size() == depths.length) {
+                    depths = Arrays.copyOf(depths, depths.length * 2);
+                }
+                depths[stack.size()] = depth++;
+                stack.add(node);
+                node = node.getLeft();
+            }
+            node = stack.remove(stack.size() - 1);
+            depth = depths[stack.size()];
+            aggregate.accept(container, node, depth);
+            node = node.getRight();
+            depth++;
+        }
+    }
+
+    private static int sizeOf(Node<?> node) {
+        return node == null ? 0 : node.getSize();
+    }
+}
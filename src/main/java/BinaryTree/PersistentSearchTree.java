@@ -0,0 +1,267 @@
+package BinaryTree;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * A binary search tree whose nodes are never changed once created.
+ * Inserts and deletes copy only the nodes on the path from the root to the changed position
+ * and share everything else with the previous version, so {@link #snapshot()} is constant time
+ * and old snapshots stay valid while the tree keeps changing. <br>
+ * Since a node can belong to many versions at once, nodes don't have parent references and aren't handed out,
+ * so this class works with keys. The tree is kept balanced with AVL rotations, so the copied paths stay short. <br>
+ * Writes are synchronized, and reads and snapshots can run on any thread without locking.
+ * Supports search, minimum, maximum, predecessor, successor, insert, delete, snapshot.
+ * @param <T> the key type of the tree
+ */
+public class PersistentSearchTree<T extends Comparable<T>> {
+
+    /**
+     * An immutable node, its height and subtree size are fixed at creation.
+     * @param <T> the key type
+     */
+    private static final class Entry<T> {
+        final T key;
+        final Entry<T> left;
+        final Entry<T> right;
+        final int height;
+        final int size;
+
+        Entry(T key, Entry<T> left, Entry<T> right) {
+            this.key = key;
+            this.left = left;
+            this.right = right;
+            height = 1 + Math.max(height(left), height(right));
+            size = 1 + size(left) + size(right);
+        }
+    }
+
+    private volatile Entry<T> root;
+
+    /** Creates an empty tree. */
+    public PersistentSearchTree() {
+    }
+
+    private PersistentSearchTree(Entry<T> root) {
+        this.root = root;
+    }
+
+    /**
+     * Captures the current version of the tree. Later changes to either tree don't affect the other.
+     * @return a tree sharing all of its nodes with this tree
+     */
+    public PersistentSearchTree<T> snapshot() {
+        return new PersistentSearchTree<>(root);
+    }
+
+    /**
+     * @param key key to search for
+     * @return whether the key is in the tree
+     */
+    public boolean contains(T key) {
+        Entry<T> entry = root;
+        while (entry != null) {
+            int comparison = key.compareTo(entry.key);
+            if (comparison == 0) {
+                return true;
+            }
+            entry = comparison < 0 ? entry.left : entry.right;
+        }
+        return false;
+    }
+
+    /**
+     * Finds the minimum key of the tree.
+     * Throws a runtime exception if the tree is empty.
+     * @return minimum key
+     */
+    public T minimum() {
+        Entry<T> entry = root;
+        if (entry == null) {
+            throw new RuntimeException("Get minimum failed: tree is empty");
+        }
+        while (entry.left != null) {
+            entry = entry.left;
+        }
+        return entry.key;
+    }
+
+    /**
+     * Finds the maximum key of the tree.
+     * Throws a runtime exception if the tree is empty.
+     * @return maximum key
+     */
+    public T maximum() {
+        Entry<T> entry = root;
+        if (entry == null) {
+            throw new RuntimeException("Get maximum failed: tree is empty");
+        }
+        while (entry.right != null) {
+            entry = entry.right;
+        }
+        return entry.key;
+    }
+
+    /**
+     * Finds the largest key less than a key, the key doesn't need to be in the tree.
+     * @param key key to start from
+     * @return predecessor of the key or null if none exists
+     */
+    public T predecessor(T key) {
+        T predecessor = null;
+        Entry<T> entry = root;
+        while (entry != null) {
+            if (key.compareTo(entry.key) > 0) {
+                predecessor = entry.key;
+                entry = entry.right;
+            } else {
+                entry = entry.left;
+            }
+        }
+        return predecessor;
+    }
+
+    /**
+     * Finds the smallest key greater than a key, the key doesn't need to be in the tree.
+     * @param key key to start from
+     * @return successor of the key or null if none exists
+     */
+    public T successor(T key) {
+        T successor = null;
+        Entry<T> entry = root;
+        while (entry != null) {
+            if (key.compareTo(entry.key) < 0) {
+                successor = entry.key;
+                entry = entry.left;
+            } else {
+                entry = entry.right;
+            }
+        }
+        return successor;
+    }
+
+    /**
+     * Inserts a key into the tree, copying the path to its position.
+     * Throws a runtime exception if the key already exists.
+     * @param key the key to be added
+     */
+    public synchronized void insert(T key) {
+        root = insert(root, key);
+    }
+
+    /**
+     * Deletes a key from the tree, copying the path to its position.
+     * Throws a runtime exception if the key does not exist.
+     * @param key key to be deleted
+     */
+    public synchronized void delete(T key) {
+        root = delete(root, key);
+    }
+
+    /** @return the size of the tree */
+    public int size() {
+        return size(root);
+    }
+
+    /** @return the depth of the tree */
+    public int height() {
+        return height(root);
+    }
+
+    /** @return a sorted list of the keys in the tree */
+    public List<T> sorted() {
+        Entry<T> entry = root;
+        List<T> list = new ArrayList<>(size(entry));
+        Deque<Entry<T>> stack = new ArrayDeque<>();
+        while (entry != null || !stack.isEmpty()) {
+            while (entry != null) {
+                stack.push(entry);
+                entry = entry.left;
+            }
+            entry = stack.pop();
+            list.add(entry.key);
+            entry = entry.right;
+        }
+        return list;
+    }
+
+    private static <T extends Comparable<T>> Entry<T> insert(Entry<T> entry, T key) {
+        if (entry == null) {
+            return new Entry<>(key, null, null);
+        }
+        int comparison = key.compareTo(entry.key);
+        if (comparison < 0) {
+            return balance(entry.key, insert(entry.left, key), entry.right);
+        } else if (comparison > 0) {
+            return balance(entry.key, entry.left, insert(entry.right, key));
+        } else {
+            throw new RuntimeException("Insert failed: element already present in tree");
+        }
+    }
+
+    private static <T extends Comparable<T>> Entry<T> delete(Entry<T> entry, T key) {
+        if (entry == null) {
+            throw new RuntimeException("Delete failed: element not present in tree");
+        }
+        int comparison = key.compareTo(entry.key);
+        if (comparison < 0) {
+            return balance(entry.key, delete(entry.left, key), entry.right);
+        } else if (comparison > 0) {
+            return balance(entry.key, entry.left, delete(entry.right, key));
+        } else if (entry.left == null) {
+            return entry.right;
+        } else if (entry.right == null) {
+            return entry.left;
+        } else {
+            // replace the key with its successor, which is removed from the right subtree
+            Entry<T> successor = entry.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            return balance(successor.key, entry.left, deleteMinimum(entry.right));
+        }
+    }
+
+    private static <T> Entry<T> deleteMinimum(Entry<T> entry) {
+        if (entry.left == null) {
+            return entry.right;
+        }
+        return balance(entry.key, deleteMinimum(entry.left), entry.right);
+    }
+
+    /**
+     * Creates a node from a key and two subtrees whose heights differ by at most 2,
+     * rotating so that the heights of the new node's subtrees differ by at most 1.
+     */
+    private static <T> Entry<T> balance(T key, Entry<T> left, Entry<T> right) {
+        if (height(left) > height(right) + 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Entry<>(left.key, left.left, new Entry<>(key, left.right, right));
+            } else {
+                Entry<T> middle = left.right;
+                return new Entry<>(middle.key, new Entry<>(left.key, left.left, middle.left),
+                        new Entry<>(key, middle.right, right));
+            }
+        } else if (height(right) > height(left) + 1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Entry<>(right.key, new Entry<>(key, left, right.left), right.right);
+            } else {
+                Entry<T> middle = right.left;
+                return new Entry<>(middle.key, new Entry<>(key, left, middle.left),
+                        new Entry<>(right.key, middle.right, right.right));
+            }
+        }
+        return new Entry<>(key, left, right);
+    }
+
+    private static int height(Entry<?> entry) {
+        return entry == null ? 0 : entry.height;
+    }
+
+    private static int size(Entry<?> entry) {
+        return entry == null ? 0 : entry.size;
+    }
+}
@@ -0,0 +1,42 @@
+package BinaryTree;
+
+import java.util.Comparator;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * A comparator that can also summarize a key as a 64-bit prefix, which trees built with it store in their nodes
+ * so that most comparisons during a search are decided by the prefixes without reading the node's key.
+ * Prefixes must agree with the comparator: when two keys have different prefixes, compared as unsigned numbers,
+ * the keys compare the same way. Keys with equal prefixes are compared by the comparator. <br>
+ * The built-in string prefixes pack the first seven characters into a byte each,
+ * stopping at the first character outside of Latin-1, so they work for any strings and work best for ASCII.
+ * Keys like URLs often begin the same way, which {@link #strings(String)} can skip so the prefix holds the
+ * characters that actually tell the keys apart.
+ * Byte array prefixes are the first eight bytes read as a big-endian number.
+ * @param <T> the key type
+ */
+public interface PrefixComparator<T> extends Comparator<T> {
+
+    /** Natural string order, with prefixes made of the first characters of each string. */
+    PrefixComparator<String> STRINGS = strings("");
+
+    /** Unsigned lexicographic order of byte arrays, with prefixes made of the first eight bytes of each array. */
+    PrefixComparator<byte[]> BYTES = new ByteArrayPrefixComparator();
+
+    /**
+     * @param key key to summarize
+     * @return a prefix of the key that orders the same way as the key
+     */
+    long prefix(T key);
+
+    /**
+     * Creates a natural string order whose prefixes skip a beginning that most keys share.
+     * Strings that don't start with it still work, but their prefixes don't speed anything up.
+     * Comparators made with the same beginning are equal.
+     * @param start beginning shared by most keys, such as "https://"
+     * @return the comparator
+     */
+    static PrefixComparator<String> strings(String start) {
+        return new StringPrefixComparator(start);
+    }
+}
@@ -0,0 +1,37 @@
+package BinaryTree;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * A node that also keeps the prefix of its key, see {@link PrefixComparator}.
+ * Trees built with a prefix comparator create these, and the prefix follows the key when keys are copied.
+ * @param <T> the type of the key
+ */
+class PrefixNode<T> extends Node<T> {
+
+    private long prefix;
+
+    PrefixNode(T key, long prefix) {
+        super(key, null, null, null);
+        this.prefix = prefix;
+    }
+
+    long getPrefix() {
+        return prefix;
+    }
+
+    void setPrefix(long prefix) {
+        this.prefix = prefix;
+    }
+
+    @Override
+    protected void copyKey(Node<T> node) {
+        super.copyKey(node);
+        prefix = ((PrefixNode<T>) node).prefix;
+    }
+
+    @Override
+    public void copyData(Node<T> node, boolean copyParent) {
+        super.copyData(node, copyParent);
+        prefix = ((PrefixNode<T>) node).prefix;
+    }
+}
@@ -0,0 +1,835 @@
+package BinaryTree;
+
+import java.util.Comparator;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * A collection of static procedures used to keep a binary search tree balanced with red-black coloring. <br>
+ * A red-black tree keeps these properties: the root is black, a red node has no red children,
+ * and every path from a node down to a missing child passes through the same number of black nodes.
+ * Together they keep the height of the tree under 2 log(n + 1). <br>
+ * Missing children are treated as black. Since nodes don't know about the tree they are in,
+ * procedures that can change the root take the current root and return the new one. <br>
+ * Red-black trees can also be split at a key and joined around a key in logarithmic time,
+ * and the set operations built on those split their inputs and recurse into both halves in parallel. <br>
+ * Insert and delete also have versions for trees whose nodes are slots referred to by index, see
+ * {@link IndexedTree}.
+ */
+public class RedBlackProcedures {
+
+    /**
+     * @param node node to check, can be null
+     * @return whether the node is red, missing nodes are black
+     */
+    public static boolean isRed(Node<?> node) {
+        return node != null && node.isRed();
+    }
+
+    /**
+     * Restores the red-black properties after a new node was added with a plain search tree insert.
+     * @param root root node of the tree
+     * @param node newly inserted node
+     * @param <T> node key type
+     * @return the new root of the tree
+     */
+    public static <T> Node<T> insertFixup(Node<T> root, Node<T> node) {
+        node.setRed(true);
+        while (isRed(node.getParent())) {
+            Node<T> parent = node.getParent();
+            // the parent is red so it can't be the root, meaning the grandparent exists
+            Node<T> grandparent = parent.getParent();
+            if (parent == grandparent.getLeft()) {
+                Node<T> uncle = grandparent.getRight();
+                if (isRed(uncle)) { // push the blackness down from the grandparent and continue above
+                    parent.setRed(false);
+                    uncle.setRed(false);
+                    grandparent.setRed(true);
+                    node = grandparent;
+                } else {
+                    if (node == parent.getRight()) { // straighten the zig-zag first
+                        node = parent;
+                        root = rotateLeft(root, node);
+                        parent = node.getParent();
+                    }
+                    parent.setRed(false);
+                    grandparent.setRed(true);
+                    root = rotateRight(root, grandparent);
+                }
+            } else {
+                Node<T> uncle = grandparent.getLeft();
+                if (isRed(uncle)) {
+                    parent.setRed(false);
+                    uncle.setRed(false);
+                    grandparent.setRed(true);
+                    node = grandparent;
+                } else {
+                    if (node == parent.getLeft()) {
+                        node = parent;
+                        root = rotateRight(root, node);
+                        parent = node.getParent();
+                    }
+                    parent.setRed(false);
+                    grandparent.setRed(true);
+                    root = rotateLeft(root, grandparent);
+                }
+            }
+        }
+        root.setRed(false);
+        return root;
+    }
+
+    /**
+     * Deletes a node from a red-black tree, relinking nodes instead of copying keys between them,
+     * then restores the red-black properties.
+     * @param root root node of the tree
+     * @param node node to be removed
+     * @param <T> node key type
+     * @return the new root of the tree, null if the tree is now empty
+     */
+    public static <T> Node<T> delete(Node<T> root, Node<T> node) {
+        boolean removedRed = node.isRed();
+        // the node that moves into the removed position, and its parent (tracked separately since it can be null)
+        Node<T> child;
+        Node<T> childParent;
+        if (node.getLeft() == null) {
+            child = node.getRight();
+            childParent = node.getParent();
+            root = transplant(root, node, child);
+        } else if (node.getRight() == null) {
+            child = node.getLeft();
+            childParent = node.getParent();
+            root = transplant(root, node, child);
+        } else {
+            // the successor has no left child, so it can be moved into the node's position
+            Node<T> successor = SearchTreeProcedures.minimum(node.getRight());
+            removedRed = successor.isRed();
+            child = successor.getRight();
+            if (successor.getParent() == node) {
+                childParent = successor;
+            } else {
+                childParent = successor.getParent();
+                root = transplant(root, successor, child);
+                successor.setRight(node.getRight());
+                successor.getRight().setParent(successor);
+            }
+            root = transplant(root, node, successor);
+            successor.setLeft(node.getLeft());
+            successor.getLeft().setParent(successor);
+            successor.setRed(node.isRed());
+        }
+        SearchTreeProcedures.updateSizes(childParent);
+        if (!removedRed) {
+            root = deleteFixup(root, child, childParent);
+        }
+        return root;
+    }
+
+    /**
+     * Utility method for delete, fixes the extra blackness carried by a node after a black node was removed.
+     * @param root root node of the tree
+     * @param node node carrying the extra blackness, can be null
+     * @param parent parent of the node
+     * @param <T> node key type
+     * @return the new root of the tree
+     */
+    private static <T> Node<T> deleteFixup(Node<T> root, Node<T> node, Node<T> parent) {
+        while (node != root && !isRed(node)) {
+            if (node == parent.getLeft()) {
+                Node<T> sibling = parent.getRight();
+                if (isRed(sibling)) { // make the sibling black so that one of the cases below applies
+                    sibling.setRed(false);
+                    parent.setRed(true);
+                    root = rotateLeft(root, parent);
+                    sibling = parent.getRight();
+                }
+                if (!isRed(sibling.getLeft()) && !isRed(sibling.getRight())) { // move the blackness up
+                    sibling.setRed(true);
+                    node = parent;
+                    parent = node.getParent();
+                } else {
+                    if (!isRed(sibling.getRight())) {
+                        sibling.getLeft().setRed(false);
+                        sibling.setRed(true);
+                        root = rotateRight(root, sibling);
+                        sibling = parent.getRight();
+                    }
+                    sibling.setRed(parent.isRed());
+                    parent.setRed(false);
+                    sibling.getRight().setRed(false);
+                    root = rotateLeft(root, parent);
+                    node = root;
+                }
+            } else {
+                Node<T> sibling = parent.getLeft();
+                if (isRed(sibling)) {
+                    sibling.setRed(false);
+                    parent.setRed(true);
+                    root = rotateRight(root, parent);
+                    sibling = parent.getLeft();
+                }
+                if (!isRed(sibling.getLeft()) && !isRed(sibling.getRight())) {
+                    sibling.setRed(true);
+                    node = parent;
+                    parent = node.getParent();
+                } else {
+                    if (!isRed(sibling.getLeft())) {
+                        sibling.getRight().setRed(false);
+                        sibling.setRed(true);
+                        root = rotateLeft(root, sibling);
+                        sibling = parent.getLeft();
+                    }
+                    sibling.setRed(parent.isRed());
+                    parent.setRed(false);
+                    sibling.getLeft().setRed(false);
+                    root = rotateRight(root, parent);
+                    node = root;
+                }
+            }
+        }
+        if (node != null) {
+            node.setRed(false);
+        }
+        return root;
+    }
+
+    private static <T> Node<T> transplant(Node<T> root, Node<T> node, Node<T> replacement) {
+        SearchTreeProcedures.transplant(node, replacement);
+        return node == root ? replacement : root;
+    }
+
+    private static <T> Node<T> rotateLeft(Node<T> root, Node<T> node) {
+        Node<T> pivot = SearchTreeProcedures.rotateLeft(node);
+        return node == root ? pivot : root;
+    }
+
+    private static <T> Node<T> rotateRight(Node<T> root, Node<T> node) {
+        Node<T> pivot = SearchTreeProcedures.rotateRight(node);
+        return node == root ? pivot : root;
+    }
+
+    /**
+     * The links and colors of a tree whose nodes are slots referred to by index instead of node objects,
+     * like {@link IntSearchTree}, so the index versions of the procedures above can balance it.
+     * Missing nodes are {@link #NIL}, and the tree keeps its own root.
+     */
+    interface IndexedTree {
+
+        /** The index used for missing nodes */
+        int NIL = -1;
+
+        int root();
+
+        void setRoot(int root);
+
+        int parent(int node);
+
+        int left(int node);
+
+        int right(int node);
+
+        void setParent(int node, int parent);
+
+        void setLeft(int node, int left);
+
+        void setRight(int node, int right);
+
+        boolean isRed(int node);
+
+        void setRed(int node, boolean red);
+    }
+
+    private static boolean isRed(IndexedTree tree, int node) {
+        return node != IndexedTree.NIL && tree.isRed(node);
+    }
+
+    /**
+     * Restores the red-black properties of an indexed tree after a new node was added with a plain search tree
+     * insert, see {@link #insertFixup(Node, Node)}.
+     * @param tree the tree
+     * @param node newly inserted node
+     */
+    static void insertFixup(IndexedTree tree, int node) {
+        tree.setRed(node, true);
+        while (isRed(tree, tree.parent(node))) {
+            int parent = tree.parent(node);
+            // the parent is red so it can't be the root, meaning the grandparent exists
+            int grandparent = tree.parent(parent);
+            if (parent == tree.left(grandparent)) {
+                int uncle = tree.right(grandparent);
+                if (isRed(tree, uncle)) { // push the blackness down from the grandparent and continue above
+                    tree.setRed(parent, false);
+                    tree.setRed(uncle, false);
+                    tree.setRed(grandparent, true);
+                    node = grandparent;
+                } else {
+                    if (node == tree.right(parent)) { // straighten the zig-zag first
+                        node = parent;
+                        rotateLeft(tree, node);
+                        parent = tree.parent(node);
+                    }
+                    tree.setRed(parent, false);
+                    tree.setRed(grandparent, true);
+                    rotateRight(tree, grandparent);
+                }
+            } else {
+                int uncle = tree.left(grandparent);
+                if (isRed(tree, uncle)) {
+                    tree.setRed(parent, false);
+                    tree.setRed(uncle, false);
+                    tree.setRed(grandparent, true);
+                    node = grandparent;
+                } else {
+                    if (node == tree.left(parent)) {
+                        node = parent;
+                        rotateRight(tree, node);
+                        parent = tree.parent(node);
+                    }
+                    tree.setRed(parent, false);
+                    tree.setRed(grandparent, true);
+                    rotateLeft(tree, grandparent);
+                }
+            }
+        }
+        tree.setRed(tree.root(), false);
+    }
+
+    /**
+     * Deletes a node from an indexed red-black tree, relinking nodes so every other node keeps its index and key,
+     * then restores the red-black properties, see {@link #delete(Node, Node)}.
+     * The deleted node's links are left for the caller to reuse.
+     * @param tree the tree
+     * @param node node to be removed
+     */
+    static void delete(IndexedTree tree, int node) {
+        boolean removedRed = tree.isRed(node);
+        // the node that moves into the removed position, and its parent (tracked separately since it can be NIL)
+        int child;
+        int childParent;
+        if (tree.left(node) == IndexedTree.NIL) {
+            child = tree.right(node);
+            childParent = tree.parent(node);
+            transplant(tree, node, child);
+        } else if (tree.right(node) == IndexedTree.NIL) {
+            child = tree.left(node);
+            childParent = tree.parent(node);
+            transplant(tree, node, child);
+        } else {
+            // the successor has no left child, so it can be moved into the node's position
+            int successor = tree.right(node);
+            while (tree.left(successor) != IndexedTree.NIL) {
+                successor = tree.left(successor);
+            }
+            removedRed = tree.isRed(successor);
+            child = tree.right(successor);
+            if (tree.parent(successor) == node) {
+                childParent = successor;
+            } else {
+                childParent = tree.parent(successor);
+                transplant(tree, successor, child);
+                tree.setRight(successor, tree.right(node));
+                tree.setParent(tree.right(successor), successor);
+            }
+            transplant(tree, node, successor);
+            tree.setLeft(successor, tree.left(node));
+            tree.setParent(tree.left(successor), successor);
+            tree.setRed(successor, tree.isRed(node));
+        }
+        if (!removedRed) {
+            deleteFixup(tree, child, childParent);
+        }
+    }
+
+    /**
+     * Utility method for the indexed delete, fixes the extra blackness carried by a node after a black node was
+     * removed, see {@link #deleteFixup(Node, Node, Node)}.
+     * @param tree the tree
+     * @param node node carrying the extra blackness, can be NIL
+     * @param parent parent of the node
+     */
+    private static void deleteFixup(IndexedTree tree, int node, int parent) {
+        while (node != tree.root() && !isRed(tree, node)) {
+            if (node == tree.left(parent)) {
+                int sibling = tree.right(parent);
+                if (isRed(tree, sibling)) { // make the sibling black so that one of the cases below applies
+                    tree.setRed(sibling, false);
+                    tree.setRed(parent, true);
+                    rotateLeft(tree, parent);
+                    sibling = tree.right(parent);
+                }
+                if (!isRed(tree, tree.left(sibling)) && !isRed(tree, tree.right(sibling))) { // move the blackness up
+                    tree.setRed(sibling, true);
+                    node = parent;
+                    parent = tree.parent(node);
+                } else {
+                    if (!isRed(tree, tree.right(sibling))) {
+                        tree.setRed(tree.left(sibling), false);
+                        tree.setRed(sibling, true);
+                        rotateRight(tree, sibling);
+                        sibling = tree.right(parent);
+                    }
+                    tree.setRed(sibling, tree.isRed(parent));
+                    tree.setRed(parent, false);
+                    tree.setRed(tree.right(sibling), false);
+                    rotateLeft(tree, parent);
+                    node = tree.root();
+                }
+            } else {
+                int sibling = tree.left(parent);
+                if (isRed(tree, sibling)) {
+                    tree.setRed(sibling, false);
+                    tree.setRed(parent, true);
+                    rotateRight(tree, parent);
+                    sibling = tree.left(parent);
+                }
+                if (!isRed(tree, tree.left(sibling)) && !isRed(tree, tree.right(sibling))) {
+                    tree.setRed(sibling, true);
+                    node = parent;
+                    parent = tree.parent(node);
+                } else {
+                    if (!isRed(tree, tree.left(sibling))) {
+                        tree.setRed(tree.right(sibling), false);
+                        tree.setRed(sibling, true);
+                        rotateLeft(tree, sibling);
+                        sibling = tree.left(parent);
+                    }
+                    tree.setRed(sibling, tree.isRed(parent));
+                    tree.setRed(parent, false);
+                    tree.setRed(tree.left(sibling), false);
+                    rotateRight(tree, parent);
+                    node = tree.root();
+                }
+            }
+        }
+        if (node != IndexedTree.NIL) {
+            tree.setRed(node, false);
+        }
+    }
+
+    /** Replaces the subtree rooted at one node of an indexed tree with the subtree rooted at another node. */
+    private static void transplant(IndexedTree tree, int node, int replacement) {
+        int parent = tree.parent(node);
+        if (parent == IndexedTree.NIL) {
+            tree.setRoot(replacement);
+        } else if (node == tree.left(parent)) {
+            tree.setLeft(parent, replacement);
+        } else {
+            tree.setRight(parent, replacement);
+        }
+        if (replacement != IndexedTree.NIL) {
+            tree.setParent(replacement, parent);
+        }
+    }
+
+    /** Rotates a node of an indexed tree to the left, so that its right child takes its place. */
+    private static void rotateLeft(IndexedTree tree, int node) {
+        int pivot = tree.right(node);
+        tree.setRight(node, tree.left(pivot));
+        if (tree.left(pivot) != IndexedTree.NIL) {
+            tree.setParent(tree.left(pivot), node);
+        }
+        transplant(tree, node, pivot);
+        tree.setLeft(pivot, node);
+        tree.setParent(node, pivot);
+    }
+
+    /** Rotates a node of an indexed tree to the right, so that its left child takes its place. */
+    private static void rotateRight(IndexedTree tree, int node) {
+        int pivot = tree.left(node);
+        tree.setLeft(node, tree.right(pivot));
+        if (tree.right(pivot) != IndexedTree.NIL) {
+            tree.setParent(tree.right(pivot), node);
+        }
+        transplant(tree, node, pivot);
+        tree.setRight(pivot, node);
+        tree.setParent(node, pivot);
+    }
+
+    /**
+     * The result of splitting a red-black tree at a key.
+     * The left and right trees are valid red-black trees with black roots, and the matching node is detached.
+     * @param <T> node key type
+     */
+    public static final class Split<T> {
+
+        private Node<T> left;
+        private int leftHeight;
+        private Node<T> match;
+        private Node<T> right;
+        private int rightHeight;
+
+        private Split() {
+        }
+
+        /** @return root of the tree of keys less than the split key, can be null */
+        public Node<T> getLeft() {
+            return left;
+        }
+
+        /** @return the detached node matching the split key, or null if the key wasn't in the tree */
+        public Node<T> getMatch() {
+            return match;
+        }
+
+        /** @return root of the tree of keys greater than the split key, can be null */
+        public Node<T> getRight() {
+            return right;
+        }
+    }
+
+    /**
+     * Joins two red-black trees and a node with a key between them into one red-black tree.
+     * This takes time proportional to the difference of the trees' black heights, which is O(log n).
+     * The trees' nodes are reused, so the old roots shouldn't be used afterwards.
+     * @param left root of a tree with keys less than the pivot's, can be null
+     * @param pivot detached node with a key between the two trees
+     * @param right root of a tree with keys greater than the pivot's, can be null
+     * @param <T> node key type
+     * @return root of the joined tree
+     */
+    public static <T> Node<T> join(Node<T> left, Node<T> pivot, Node<T> right) {
+        return blacken(join(left, blackHeight(left), pivot, right, blackHeight(right)).root);
+    }
+
+    /**
+     * Splits a red-black tree into the keys less than and greater than a key, and the node matching it if any.
+     * This takes O(log n) time, since the joins along the way add up to the height of the tree.
+     * The tree's nodes are reused, so the old root shouldn't be used afterwards.
+     * @param root root of the tree, can be null
+     * @param key key to split at
+     * @param <T> node key type
+     * @return the two trees and the matching node
+     */
+    public static <T extends Comparable<T>> Split<T> split(Node<T> root, T key) {
+        return split(root, key, Comparator.naturalOrder());
+    }
+
+    /**
+     * Splits a red-black tree ordered by a comparator, see {@link #split(Node, Comparable)}.
+     * @param root root of the tree, can be null
+     * @param key key to split at
+     * @param comparator order of the tree's keys
+     * @param <T> node key type
+     * @return the two trees and the matching node
+     */
+    public static <T> Split<T> split(Node<T> root, T key, Comparator<? super T> comparator) {
+        Split<T> split = new Split<>();
+        split(root, blackHeight(root), key, comparator, split);
+        split.left = blacken(split.left);
+        split.right = blacken(split.right);
+        if (split.match != null) {
+            link(null, split.match, null, false);
+        }
+        return split;
+    }
+
+    /**
+     * Merges two red-black trees into one holding the keys of either.
+     * When both trees hold a key, the second tree's node is kept.
+     * Takes O(m log(n / m + 1)) time for trees of sizes m &le; n, and large trees are merged in parallel.
+     * The trees' nodes are reused, so the old roots shouldn't be used afterwards.
+     * @param first root of the first tree, can be null
+     * @param second root of the second tree, can be null
+     * @param <T> node key type
+     * @return root of the merged tree
+     */
+    public static <T extends Comparable<T>> Node<T> union(Node<T> first, Node<T> second) {
+        return setOperation(UNION, first, second, Comparator.naturalOrder());
+    }
+
+    /**
+     * Merges two red-black trees ordered by the same comparator, see {@link #union(Node, Node)}.
+     * @param first root of the first tree, can be null
+     * @param second root of the second tree, can be null
+     * @param comparator order of both trees' keys
+     * @param <T> node key type
+     * @return root of the merged tree
+     */
+    public static <T> Node<T> union(Node<T> first, Node<T> second, Comparator<? super T> comparator) {
+        return setOperation(UNION, first, second, comparator);
+    }
+
+    /**
+     * Finds the keys two red-black trees share, keeping the second tree's nodes.
+     * Runs in the same time as {@link #union(Node, Node)}, and the old roots shouldn't be used afterwards.
+     * @param first root of the first tree, can be null
+     * @param second root of the second tree, can be null
+     * @param <T> node key type
+     * @return root of the tree of shared keys
+     */
+    public static <T extends Comparable<T>> Node<T> intersection(Node<T> first, Node<T> second) {
+        return setOperation(INTERSECTION, first, second, Comparator.naturalOrder());
+    }
+
+    /**
+     * Finds the keys two red-black trees ordered by the same comparator share, see {@link #intersection(Node, Node)}.
+     * @param first root of the first tree, can be null
+     * @param second root of the second tree, can be null
+     * @param comparator order of both trees' keys
+     * @param <T> node key type
+     * @return root of the tree of shared keys
+     */
+    public static <T> Node<T> intersection(Node<T> first, Node<T> second, Comparator<? super T> comparator) {
+        return setOperation(INTERSECTION, first, second, comparator);
+    }
+
+    /**
+     * Removes the keys of one red-black tree from another.
+     * Runs in the same time as {@link #union(Node, Node)}, and the old roots shouldn't be used afterwards.
+     * @param first root of the tree to remove keys from, can be null
+     * @param second root of the tree of keys to remove, can be null
+     * @param <T> node key type
+     * @return root of the tree of keys only in the first tree
+     */
+    public static <T extends Comparable<T>> Node<T> difference(Node<T> first, Node<T> second) {
+        return setOperation(DIFFERENCE, first, second, Comparator.naturalOrder());
+    }
+
+    /**
+     * Removes the keys of one red-black tree from another ordered by the same comparator,
+     * see {@link #difference(Node, Node)}.
+     * @param first root of the tree to remove keys from, can be null
+     * @param second root of the tree of keys to remove, can be null
+     * @param comparator order of both trees' keys
+     * @param <T> node key type
+     * @return root of the tree of keys only in the first tree
+     */
+    public static <T> Node<T> difference(Node<T> first, Node<T> second, Comparator<? super T> comparator) {
+        return setOperation(DIFFERENCE, first, second, comparator);
+    }
+
+    // the set operations built on split and join
+    private static final int UNION = 0;
+    private static final int INTERSECTION = 1;
+    private static final int DIFFERENCE = 2;
+
+    private static <T> Node<T> setOperation(int operation, Node<T> first, Node<T> second,
+                                            Comparator<? super T> comparator) {
+        Piece<T> result = setOperation(operation, first, blackHeight(first), second, blackHeight(second), comparator);
+        return blacken(result.root);
+    }
+
+    /**
+     * Runs a set operation by splitting the first tree at the second tree's root
+     * and running the operation on both sides, in parallel for large trees.
+     */
+    private static <T> Piece<T> setOperation(int operation, Node<T> first, int firstHeight, Node<T> second,
+                                             int secondHeight, Comparator<? super T> comparator) {
+        if (first == null || second == null) {
+            if (operation == UNION) {
+                return first == null ? new Piece<>(second, secondHeight) : new Piece<>(first, firstHeight);
+            }
+            return operation == DIFFERENCE ? new Piece<>(first, firstHeight) : new Piece<>(null, 0);
+        }
+        Node<T> secondLeft = second.getLeft();
+        Node<T> secondRight = second.getRight();
+        int childHeight = second.isRed() ? secondHeight : secondHeight - 1;
+        boolean parallel = first.getSize() + second.getSize() >= ParallelProcedures.PARALLEL_THRESHOLD;
+        Split<T> split = new Split<>();
+        split(first, firstHeight, second.getKey(), comparator, split);
+        Piece<T> left;
+        Piece<T> right;
+        if (parallel) {
+            SetTask<T> leftTask = new SetTask<>(operation, split.left, split.leftHeight, secondLeft, childHeight,
+                    comparator);
+            leftTask.fork();
+            right = setOperation(operation, split.right, split.rightHeight, secondRight, childHeight, comparator);
+            left = leftTask.join();
+        } else {
+            left = setOperation(operation, split.left, split.leftHeight, secondLeft, childHeight, comparator);
+            right = setOperation(operation, split.right, split.rightHeight, secondRight, childHeight, comparator);
+        }
+        if (operation == UNION || (operation == INTERSECTION && split.match != null)) {
+            return join(left.root, left.height, second, right.root, right.height);
+        }
+        return join(left.root, left.height, right.root, right.height);
+    }
+
+    @SuppressWarnings("serial") // tasks are never serialized
+    private static final class SetTask<T> extends RecursiveTask<Piece<T>> {
+
+        private final int operation;
+        private final Node<T> first;
+        private final int firstHeight;
+        private final Node<T> second;
+        private final int secondHeight;
+        private final Comparator<? super T> comparator;
+
+        SetTask(int operation, Node<T> first, int firstHeight, Node<T> second, int secondHeight,
+                Comparator<? super T> comparator) {
+            this.operation = operation;
+            this.first = first;
+            this.firstHeight = firstHeight;
+            this.second = second;
+            this.secondHeight = secondHeight;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected Piece<T> compute() {
+            return setOperation(operation, first, firstHeight, second, secondHeight, comparator);
+        }
+    }
+
+    /**
+     * A subtree in the middle of a split or join, along with its black height.
+     * Its root may be red, and its parent link is meaningless until it is linked into a tree.
+     */
+    private static final class Piece<T> {
+
+        private final Node<T> root;
+        private final int height;
+
+        Piece(Node<T> root, int height) {
+            this.root = root;
+            this.height = height;
+        }
+    }
+
+    private static <T> void split(Node<T> root, int height, T key, Comparator<? super T> comparator,
+                                  Split<T> split) {
+        if (root == null) {
+            split.left = null;
+            split.leftHeight = 0;
+            split.match = null;
+            split.right = null;
+            split.rightHeight = 0;
+            return;
+        }
+        Node<T> left = root.getLeft();
+        Node<T> right = root.getRight();
+        int childHeight = root.isRed() ? height : height - 1;
+        int comparison = comparator.compare(key, root.getKey());
+        if (comparison == 0) {
+            split.left = left;
+            split.leftHeight = childHeight;
+            split.match = root;
+            split.right = right;
+            split.rightHeight = childHeight;
+        } else if (comparison < 0) {
+            split(left, childHeight, key, comparator, split);
+            Piece<T> joined = join(split.right, split.rightHeight, root, right, childHeight);
+            split.right = joined.root;
+            split.rightHeight = joined.height;
+        } else {
+            split(right, childHeight, key, comparator, split);
+            Piece<T> joined = join(left, childHeight, root, split.left, split.leftHeight);
+            split.left = joined.root;
+            split.leftHeight = joined.height;
+        }
+    }
+
+    /** Joins two trees without a pivot by taking the largest node of the left tree out to use as one. */
+    private static <T> Piece<T> join(Node<T> left, int leftHeight, Node<T> right, int rightHeight) {
+        if (left == null) {
+            return new Piece<>(right, rightHeight);
+        }
+        Node<T> last = SearchTreeProcedures.maximum(left);
+        Piece<T> rest = removeLast(left, leftHeight);
+        return join(rest.root, rest.height, last, right, rightHeight);
+    }
+
+    /** Removes the largest node of a tree, leaving it detached. */
+    private static <T> Piece<T> removeLast(Node<T> root, int height) {
+        int childHeight = root.isRed() ? height : height - 1;
+        if (root.getRight() == null) {
+            return new Piece<>(root.getLeft(), childHeight);
+        }
+        Node<T> left = root.getLeft();
+        Piece<T> rest = removeLast(root.getRight(), childHeight);
+        return join(left, childHeight, root, rest.root, rest.height);
+    }
+
+    private static <T> Piece<T> join(Node<T> left, int leftHeight, Node<T> pivot, Node<T> right, int rightHeight) {
+        if (leftHeight > rightHeight) {
+            Node<T> root = joinRight(left, leftHeight, pivot, right, rightHeight);
+            if (root.isRed() && isRed(root.getRight())) {
+                root.setRed(false);
+                return new Piece<>(root, leftHeight + 1);
+            }
+            return new Piece<>(root, leftHeight);
+        }
+        if (rightHeight > leftHeight) {
+            Node<T> root = joinLeft(left, leftHeight, pivot, right, rightHeight);
+            if (root.isRed() && isRed(root.getLeft())) {
+                root.setRed(false);
+                return new Piece<>(root, rightHeight + 1);
+            }
+            return new Piece<>(root, rightHeight);
+        }
+        if (!isRed(left) && !isRed(right)) {
+            return new Piece<>(link(left, pivot, right, true), leftHeight);
+        }
+        return new Piece<>(link(left, pivot, right, false), leftHeight + 1);
+    }
+
+    /**
+     * Joins a shorter right tree into the right spine of a taller left tree, at a black node of the same
+     * black height, then fixes red nodes with red children on the way back up with a recoloring and a rotation.
+     */
+    private static <T> Node<T> joinRight(Node<T> left, int leftHeight, Node<T> pivot, Node<T> right,
+                                         int rightHeight) {
+        if (!isRed(left) && leftHeight == rightHeight) {
+            return link(left, pivot, right, true);
+        }
+        int childHeight = left.isRed() ? leftHeight : leftHeight - 1;
+        Node<T> joined = joinRight(left.getRight(), childHeight, pivot, right, rightHeight);
+        Node<T> node = link(left.getLeft(), left, joined, left.isRed());
+        if (!node.isRed() && joined.isRed() && isRed(joined.getRight())) {
+            joined.getRight().setRed(false);
+            return link(link(node.getLeft(), node, joined.getLeft(), false), joined, joined.getRight(), true);
+        }
+        return node;
+    }
+
+    /** The mirror image of {@link #joinRight(Node, int, Node, Node, int)}. */
+    private static <T> Node<T> joinLeft(Node<T> left, int leftHeight, Node<T> pivot, Node<T> right,
+                                        int rightHeight) {
+        if (!isRed(right) && leftHeight == rightHeight) {
+            return link(left, pivot, right, true);
+        }
+        int childHeight = right.isRed() ? rightHeight : rightHeight - 1;
+        Node<T> joined = joinLeft(left, leftHeight, pivot, right.getLeft(), childHeight);
+        Node<T> node = link(joined, right, right.getRight(), right.isRed());
+        if (!node.isRed() && joined.isRed() && isRed(joined.getLeft())) {
+            joined.getLeft().setRed(false);
+            return link(joined.getLeft(), joined, link(joined.getRight(), node, node.getRight(), false), true);
+        }
+        return node;
+    }
+
+    /** Makes a node the parent of two subtrees, and the root of a detached tree. */
+    private static <T> Node<T> link(Node<T> left, Node<T> node, Node<T> right, boolean red) {
+        node.setLeft(left);
+        node.setRight(right);
+        node.setParent(null);
+        node.setRed(red);
+        if (left != null) {
+            left.setParent(node);
+        }
+        if (right != null) {
+            right.setParent(node);
+        }
+        node.updateSize();
+        return node;
+    }
+
+    private static <T> Node<T> blacken(Node<T> root) {
+        if (root != null) {
+            root.setRed(false);
+            root.setParent(null);
+        }
+        return root;
+    }
+
+    /** @return the number of black nodes on any path from a node down to a missing child */
+    private static int blackHeight(Node<?> root) {
+        int height = 0;
+        for (Node<?> node = root; node != null; node = node.getLeft()) {
+            if (!node.isRed()) {
+                height++;
+            }
+        }
+        return height;
+    }
+}
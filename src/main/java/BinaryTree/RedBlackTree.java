@@ -0,0 +1,206 @@
+package BinaryTree;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * A binary search tree that balances itself with red-black coloring, see {@link RedBlackProcedures}.
+ * Inserts and deletes rotate and recolor nodes so that the height of the tree stays logarithmic,
+ * even when keys are inserted in sorted order. <br>
+ * Unlike the plain tree, deleting never copies keys between nodes,
+ * so nodes returned by other operations keep their keys after unrelated deletes.
+ * @param <T> the key type of the tree's nodes
+ */
+public class RedBlackTree<T> extends SearchTree<T> {
+
+    /** Creates an empty tree ordered by the natural ordering of its keys, which must be {@link Comparable}. */
+    public RedBlackTree() {
+    }
+
+    /**
+     * Creates an empty tree ordered by a comparator, see {@link SearchTree#SearchTree(Comparator)}.
+     * @param comparator order of the keys, or null for their natural ordering
+     */
+    public RedBlackTree(Comparator<? super T> comparator) {
+        super(comparator);
+    }
+
+    /**
+     * Creates an empty tree ordered by a comparator and hashed by a key hash,
+     * see {@link SearchTree#SearchTree(Comparator, ToLongFunction)}.
+     * @param comparator order of the keys, or null for their natural ordering
+     * @param keyHash hashes a key to 64 bits, or null for {@link MerkleProcedures#keyHash(Object)}
+     */
+    public RedBlackTree(Comparator<? super T> comparator, ToLongFunction<? super T> keyHash) {
+        super(comparator, keyHash);
+    }
+
+    /**
+     * Builds a perfectly balanced, validly colored tree from keys in increasing order, in linear time.
+     * Very large inputs are built in parallel.
+     * Throws a runtime exception if the keys are not strictly increasing.
+     * @param keys keys in increasing order
+     * @param <T> the key type
+     * @return a tree holding the keys
+     */
+    public static <T extends Comparable<T>> RedBlackTree<T> fromSorted(List<T> keys) {
+        RedBlackTree<T> tree = new RedBlackTree<>();
+        tree.root = SearchTreeProcedures.buildFromSorted(randomAccess(keys), true);
+        return tree;
+    }
+
+    /**
+     * Builds a perfectly balanced, validly colored tree from keys in increasing order, in linear time.
+     * Throws a runtime exception if the keys are not strictly increasing.
+     * @param keys keys in increasing order
+     * @param <T> the key type
+     * @return a tree holding the keys
+     */
+    public static <T extends Comparable<T>> RedBlackTree<T> fromSorted(T[] keys) {
+        return fromSorted(Arrays.asList(keys));
+    }
+
+    /**
+     * Builds a perfectly balanced, validly colored tree from keys in increasing order, in linear time.
+     * Throws a runtime exception if the keys are not strictly increasing.
+     * @param keys keys in increasing order
+     * @param <T> the key type
+     * @return a tree holding the keys
+     */
+    public static <T extends Comparable<T>> RedBlackTree<T> fromSorted(Iterator<T> keys) {
+        return fromSorted(drain(keys));
+    }
+
+    /**
+     * Inserts a key into the tree and rebalances it.
+     * Throws a runtime exception if the key already exists.
+     * @param key the key to be added
+     * @return added node
+     */
+    @Override
+    protected Node<T> insertKey(T key) {
+        Node<T> node = super.insertKey(key);
+        root = RedBlackProcedures.insertFixup(root, node);
+        return node;
+    }
+
+    /**
+     * Deletes a node from the tree and rebalances it.
+     * @param node node to be deleted, not null
+     * @return the deleted node, which has left the tree
+     */
+    @Override
+    protected Node<T> deleteNode(Node<T> node) {
+        root = RedBlackProcedures.delete(root, node);
+        return node;
+    }
+
+    /**
+     * Moves the keys greater than or equal to a key into a new tree, keeping the smaller ones in this tree.
+     * Takes O(log n) time, since nodes are moved rather than copied.
+     * @param key key to split at, doesn't need to be in the tree
+     * @return a tree with the keys greater than or equal to the key
+     */
+    public RedBlackTree<T> split(T key) {
+        RedBlackProcedures.Split<T> split = RedBlackProcedures.split(takeRoot(), key, order());
+        root = split.getLeft();
+        RedBlackTree<T> right = new RedBlackTree<T>(comparator(), keyHash());
+        right.root = split.getMatch() == null ? split.getRight()
+                : RedBlackProcedures.join(null, split.getMatch(), split.getRight());
+        return right;
+    }
+
+    /**
+     * Joins two trees and a key between them into a new tree in O(log n) time, leaving the two trees empty.
+     * Throws a runtime exception if the keys of the left tree aren't all less than the pivot,
+     * or the keys of the right tree aren't all greater, or the trees are the same or ordered or hashed differently.
+     * @param left tree of keys less than the pivot
+     * @param pivot key between the two trees
+     * @param right tree of keys greater than the pivot
+     * @param <T> the key type
+     * @return a tree with the keys of both trees and the pivot
+     */
+    public static <T> RedBlackTree<T> join(RedBlackTree<T> left, T pivot, RedBlackTree<T> right) {
+        checkCompatible(left, right, "Join");
+        if ((left.root != null && left.compare(left.maximum().getKey(), pivot) >= 0)
+                || (right.root != null && left.compare(right.minimum().getKey(), pivot) <= 0)) {
+            throw new RuntimeException("Join failed: keys are out of order");
+        }
+        RedBlackTree<T> tree = new RedBlackTree<T>(left.comparator(), left.keyHash());
+        tree.root = RedBlackProcedures.join(left.takeRoot(), tree.createNode(pivot), right.takeRoot());
+        return tree;
+    }
+
+    /**
+     * Merges two trees into a new tree holding the keys of either, leaving the two trees empty.
+     * Takes O(m log(n / m + 1)) time for trees of sizes m &le; n, and large trees are merged in parallel,
+     * see {@link RedBlackProcedures#union(Node, Node)}.
+     * Throws a runtime exception if the trees are the same or ordered or hashed differently.
+     * @param first first tree
+     * @param second second tree, whose nodes are kept for keys in both trees
+     * @param <T> the key type
+     * @return a tree with the keys of either tree
+     */
+    public static <T> RedBlackTree<T> union(RedBlackTree<T> first, RedBlackTree<T> second) {
+        checkCompatible(first, second, "Union");
+        RedBlackTree<T> tree = new RedBlackTree<T>(first.comparator(), first.keyHash());
+        tree.root = RedBlackProcedures.union(first.takeRoot(), second.takeRoot(), first.order());
+        return tree;
+    }
+
+    /**
+     * Creates a new tree of the keys two trees share, leaving the two trees empty.
+     * Runs in the same time as {@link #union(RedBlackTree, RedBlackTree)}.
+     * Throws a runtime exception if the trees are the same or ordered or hashed differently.
+     * @param first first tree
+     * @param second second tree, whose nodes are kept
+     * @param <T> the key type
+     * @return a tree with the keys in both trees
+     */
+    public static <T> RedBlackTree<T> intersection(RedBlackTree<T> first, RedBlackTree<T> second) {
+        checkCompatible(first, second, "Intersection");
+        RedBlackTree<T> tree = new RedBlackTree<T>(first.comparator(), first.keyHash());
+        tree.root = RedBlackProcedures.intersection(first.takeRoot(), second.takeRoot(), first.order());
+        return tree;
+    }
+
+    /**
+     * Creates a new tree of the keys of one tree that aren't in another, leaving the two trees empty.
+     * Runs in the same time as {@link #union(RedBlackTree, RedBlackTree)}.
+     * Throws a runtime exception if the trees are the same or ordered or hashed differently.
+     * @param first tree to take keys from
+     * @param second tree of keys to leave out
+     * @param <T> the key type
+     * @return a tree with the keys only in the first tree
+     */
+    public static <T> RedBlackTree<T> difference(RedBlackTree<T> first, RedBlackTree<T> second) {
+        checkCompatible(first, second, "Difference");
+        RedBlackTree<T> tree = new RedBlackTree<T>(first.comparator(), first.keyHash());
+        tree.root = RedBlackProcedures.difference(first.takeRoot(), second.takeRoot(), first.order());
+        return tree;
+    }
+
+    private static void checkCompatible(RedBlackTree<?> first, RedBlackTree<?> second, String operation) {
+        if (first == second) {
+            throw new RuntimeException(operation + " failed: trees must be different");
+        }
+        if (!Objects.equals(first.comparator(), second.comparator())) {
+            throw new RuntimeException(operation + " failed: trees are ordered differently");
+        }
+        if (!Objects.equals(first.keyHash(), second.keyHash())) {
+            throw new RuntimeException(operation + " failed: trees hash keys differently");
+        }
+    }
+
+    /** Empties the tree and returns its old root, for operations that move the nodes into another tree. */
+    private Node<T> takeRoot() {
+        Node<T> root = this.root;
+        clear();
+        return root;
+    }
+}
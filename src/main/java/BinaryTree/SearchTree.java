@@ -1,21 +1,136 @@
 package BinaryTree;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
- * Last edited 1/5/2021 <br>
+ * Last edited 10/16/2026 <br>
  * This class represents a binary search tree and allows easy, safe use of standard procedures.
  * Data is stored through associated nodes, all connected to the root node.
  * The binary search tree condition states that the key is more than the
  * left child's key and less than the right child's key. This constraint allows operations to run quickly.
  * NOTE: There is no validation that a node actually belongs to the tree.
- * Supports search, minimum, maximum, predecessor, successor, insert, delete.
+ * Supports search, minimum, maximum, predecessor, successor, floor, ceiling, lower, higher, range queries,
+ * insert, delete, rank, select.
+ * Lookups can optionally start from the last node found, see {@link #enableFingerSearch()}.
+ * Keys are ordered by their natural ordering or by a comparator given to the constructor.
+ * Two trees can be compared by hashing ranges of their keys, see {@link #diff(SearchTree, Consumer, Consumer)}.
+ * No rebalancing is done, see {@link RedBlackTree} for a tree with guaranteed logarithmic height
+ * and {@link SplayTree} for a tree that keeps recently accessed keys near the root.
  * @author Benjamin Friedman
  * @param <T> the key type of the tree's nodes
  */
-public class SearchTree<T extends Comparable<T>> {
+public class SearchTree<T> {
 
-    private Node<T> root;
+    // the kinds of finger searches
+    private static final int EXACT = 0;
+    private static final int FLOOR = 1;
+    private static final int CEILING = 2;
+    private static final int LOWER = 3;
+    private static final int HIGHER = 4;
+
+    protected Node<T> root;
+    private final Comparator<? super T> comparator; // null for the natural ordering of the keys
+    private final Comparator<? super T> order; // the comparator or the natural ordering, never null
+    private final ToLongFunction<? super T> keyHash; // null for hashing keys by MerkleProcedures.keyHash
+    private final ToLongFunction<? super T> hashing; // the key hash or the default one, never null
+    private TreeMetrics metrics;
+    private boolean metered; // whether the current operation counts its comparisons and visited nodes
+    private int comparisons;
+    private int visited;
+    private boolean fingerSearch;
+    private Node<T> finger; // the last node found by a finger search, and its depth
+    private int fingerDepth;
+    private int poolCapacity; // 0 when there is no node pool
+    private Node<T> pool; // deleted nodes waiting to be reused, chained through their left links
+    private int poolSize;
+
+    /** Creates an empty tree ordered by the natural ordering of its keys, which must be {@link Comparable}. */
+    public SearchTree() {
+        this(null);
+    }
+
+    /**
+     * Creates an empty tree ordered by a comparator, which should be consistent with equals.
+     * With a {@link PrefixComparator}, every node also keeps a prefix of its key, and searches and inserts
+     * compare prefixes first so they rarely need to read the keys of the nodes they pass.
+     * The keys don't need to be {@link Comparable}. Snapshots only support the natural ordering.
+     * @param comparator order of the keys, or null for their natural ordering
+     */
+    public SearchTree(Comparator<? super T> comparator) {
+        this(comparator, null);
+    }
+
+    /**
+     * Creates an empty tree ordered by a comparator, whose keys are hashed for {@link #contentHash()} and
+     * {@link #diff(SearchTree, Consumer, Consumer)} by a given key hash. Keys that the default
+     * {@link MerkleProcedures#keyHash(Object)} can only hash by their hashCode should get one that looks at their
+     * contents, so the diff can tell them apart.
+     * @param comparator order of the keys, or null for their natural ordering
+     * @param keyHash hashes a key to 64 bits, or null for {@link MerkleProcedures#keyHash(Object)}
+     */
+    public SearchTree(Comparator<? super T> comparator, ToLongFunction<? super T> keyHash) {
+        this.comparator = comparator;
+        this.order = comparator == null ? SearchTreeProcedures.naturalOrder() : comparator;
+        this.keyHash = keyHash;
+        this.hashing = keyHash == null ? MerkleProcedures.DEFAULT_KEY_HASH : keyHash;
+    }
+
+    /**
+     * Builds a perfectly balanced tree from keys in increasing order, in linear time.
+     * Very large inputs are built in parallel.
+     * Throws a runtime exception if the keys are not strictly increasing.
+     * @param keys keys in increasing order
+     * @param <T> the key type
+     * @return a tree holding the keys
+     */
+    public static <T extends Comparable<T>> SearchTree<T> fromSorted(List<T> keys) {
+        SearchTree<T> tree = new SearchTree<>();
+        tree.root = SearchTreeProcedures.buildFromSorted(randomAccess(keys), false);
+        return tree;
+    }
+
+    /**
+     * Builds a perfectly balanced tree from keys in increasing order, in linear time.
+     * Throws a runtime exception if the keys are not strictly increasing.
+     * @param keys keys in increasing order
+     * @param <T> the key type
+     * @return a tree holding the keys
+     */
+    public static <T extends Comparable<T>> SearchTree<T> fromSorted(T[] keys) {
+        return fromSorted(Arrays.asList(keys));
+    }
+
+    /**
+     * Builds a perfectly balanced tree from keys in increasing order, in linear time.
+     * Throws a runtime exception if the keys are not strictly increasing.
+     * @param keys keys in increasing order
+     * @param <T> the key type
+     * @return a tree holding the keys
+     */
+    public static <T extends Comparable<T>> SearchTree<T> fromSorted(Iterator<T> keys) {
+        return fromSorted(drain(keys));
+    }
+
+    /** @return the list itself if it supports fast random access, or else a copy that does */
+    static <T> List<T> randomAccess(List<T> list) {
+        return list instanceof RandomAccess ? list : new ArrayList<>(list);
+    }
+
+    static <T> List<T> drain(Iterator<T> iterator) {
+        List<T> list = new ArrayList<>();
+        iterator.forEachRemaining(list::add);
+        return list;
+    }
 
     /**
      * Finds a node matching a given key. Set the data field of the node to its depth.
@@ -23,7 +138,59 @@ public class SearchTree<T extends Comparable<T>> {
      * @return a node matching the key or null if none exists
      */
     public Node<T> search(T key) {
-        return SearchTreeProcedures.search(root, key);
+        TreeMetrics metrics = this.metrics;
+        if (metrics == null) {
+            return searchKey(key);
+        }
+        startMetering();
+        long start = System.nanoTime();
+        Node<T> node;
+        try {
+            node = searchKey(key);
+        } finally {
+            metered = false;
+        }
+        metrics.record(TreeMetrics.Operation.SEARCH, visited, comparisons, System.nanoTime() - start);
+        metrics.recordSize(size());
+        return node;
+    }
+
+    /**
+     * Finds the nodes matching a batch of keys, sharing the upper parts of the search paths between nearby keys,
+     * see {@link SearchTreeProcedures#searchAll(Node, Comparable[], Node[])}. The data fields of the nodes aren't
+     * set, the tree isn't restructured on access, and the searches aren't recorded in the metrics.
+     * @param keys keys to search for, in any order
+     * @param results array that receives the node matching each key, or null, at the key's index
+     * @return the number of keys that were found
+     */
+    public int searchAll(T[] keys, Node<T>[] results) {
+        return SearchTreeProcedures.searchAll(root, keys, results, order);
+    }
+
+    /**
+     * Checks which keys of a batch are in the tree, like {@link #searchAll(Object[], Node[])}.
+     * @param keys keys to search for, in any order
+     * @param results array that receives whether each key is in the tree, at the key's index
+     * @return the number of keys that were found
+     */
+    public int containsAll(T[] keys, boolean[] results) {
+        return SearchTreeProcedures.containsAll(root, keys, results, order);
+    }
+
+    /**
+     * Does the work of search, subclasses that restructure the tree on access should override this.
+     * @param key key to search for
+     * @return a node matching the key or null if none exists
+     */
+    protected Node<T> searchKey(T key) {
+        if (fingerSearch) {
+            return fingerFind(key, EXACT);
+        }
+        if (metered) {
+            return meteredSearch(key);
+        }
+        return comparator == null ? SearchTreeProcedures.searchNatural(root, key)
+                : SearchTreeProcedures.search(root, key, comparator);
     }
 
     /**
@@ -76,6 +243,80 @@ public class SearchTree<T extends Comparable<T>> {
         return SearchTreeProcedures.successor(node);
     }
 
+    /**
+     * Finds the node with the largest key less than or equal to a given key.
+     * @param key key to compare with, doesn't need to be in the tree
+     * @return the matching node or null if none exists
+     */
+    public Node<T> floor(T key) {
+        return fingerSearch ? fingerFind(key, FLOOR) : SearchTreeProcedures.floor(root, key, order);
+    }
+
+    /**
+     * Finds the node with the smallest key greater than or equal to a given key.
+     * @param key key to compare with, doesn't need to be in the tree
+     * @return the matching node or null if none exists
+     */
+    public Node<T> ceiling(T key) {
+        return fingerSearch ? fingerFind(key, CEILING) : SearchTreeProcedures.ceiling(root, key, order);
+    }
+
+    /**
+     * Finds the node with the largest key strictly less than a given key.
+     * @param key key to compare with, doesn't need to be in the tree
+     * @return the matching node or null if none exists
+     */
+    public Node<T> lower(T key) {
+        return fingerSearch ? fingerFind(key, LOWER) : SearchTreeProcedures.lower(root, key, order);
+    }
+
+    /**
+     * Finds the node with the smallest key strictly greater than a given key.
+     * @param key key to compare with, doesn't need to be in the tree
+     * @return the matching node or null if none exists
+     */
+    public Node<T> higher(T key) {
+        return fingerSearch ? fingerFind(key, HIGHER) : SearchTreeProcedures.higher(root, key, order);
+    }
+
+    /**
+     * Creates a view of the keys from one key, inclusive, to another, exclusive.
+     * Each iteration descends once to the first key and then walks successors lazily,
+     * so it sees the tree as it is when the iteration starts.
+     * The tree should not be changed during an iteration.
+     * @param from lowest key of the range, inclusive
+     * @param to highest key of the range, exclusive
+     * @return an iterable view of the keys in the range
+     */
+    public Iterable<T> range(T from, T to) {
+        return () -> rangeIterator(from, to);
+    }
+
+    /**
+     * Creates a view of the keys strictly less than a key, see {@link #range(Object, Object)}.
+     * @param to highest key of the range, exclusive
+     * @return an iterable view of the keys in the range
+     */
+    public Iterable<T> headSet(T to) {
+        return () -> rangeIterator(null, to);
+    }
+
+    /**
+     * Creates a view of the keys greater than or equal to a key, see {@link #range(Object, Object)}.
+     * @param from lowest key of the range, inclusive
+     * @return an iterable view of the keys in the range
+     */
+    public Iterable<T> tailSet(T from) {
+        return () -> rangeIterator(from, null);
+    }
+
+    private Iterator<T> rangeIterator(T from, T to) {
+        if (fingerSearch && from != null) {
+            return SearchTreeProcedures.iteratorFrom(fingerFind(from, CEILING), to, order);
+        }
+        return SearchTreeProcedures.rangeIterator(root, from, to, order);
+    }
+
     /**
      * Inserts a key into the tree.
      * Throws a runtime exception if the key already exists.
@@ -83,19 +324,120 @@ public class SearchTree<T extends Comparable<T>> {
      * @return added node
      */
     public Node<T> insert(T key) {
+        finger = null;
+        TreeMetrics metrics = this.metrics;
+        if (metrics == null) {
+            return insertKey(key);
+        }
+        startMetering();
+        long start = System.nanoTime();
         Node<T> node;
+        try {
+            node = insertKey(key);
+        } finally {
+            metered = false;
+        }
+        metrics.record(TreeMetrics.Operation.INSERT, visited, comparisons, System.nanoTime() - start);
+        metrics.recordSize(size());
+        return node;
+    }
+
+    /**
+     * Does the work of insert, subclasses that restructure the tree on insert should override this.
+     * Throws a runtime exception if the key already exists.
+     * @param key the key to be added
+     * @return added node
+     */
+    protected Node<T> insertKey(T key) {
+        Node<T> node = createNode(key);
         if (root == null) {
-            node = new Node<>(key, null, null, null);
             root = node;
-        } else {
-            node = SearchTreeProcedures.insert(root, key);
-            if (node == null) { // this can only happen if the key already existed
-                throw new RuntimeException("Insert failed: element already present in tree");
-            }
+        } else if (metered ? !meteredInsert(node)
+                : comparator == null ? !SearchTreeProcedures.insertNodeNatural(root, node)
+                : !SearchTreeProcedures.insertNode(root, node, comparator)) { // only if the key already existed
+            recycle(node);
+            throw new RuntimeException("Insert failed: element already present in tree");
+        }
+        return node;
+    }
+
+    /**
+     * Creates a detached node for a new key, reusing a pooled node if there is one.
+     * Subclasses can override this to use their own kind of node, which bypasses the pool.
+     * @param key key of the node
+     * @return a node with no parent or children
+     */
+    protected Node<T> createNode(T key) {
+        Node<T> node = pool;
+        if (node == null) {
+            return comparator instanceof PrefixComparator
+                    ? new PrefixNode<>(key, ((PrefixComparator<? super T>) comparator).prefix(key))
+                    : new Node<>(key, null, null, null);
+        }
+        pool = node.getLeft();
+        poolSize--;
+        node.reset(key);
+        if (node instanceof PrefixNode) {
+            ((PrefixNode<T>) node).setPrefix(((PrefixComparator<? super T>) comparator).prefix(key));
         }
         return node;
     }
 
+    /**
+     * Gives a node that left the tree to the pool, if there is one with room.
+     * @param node node that is no longer in the tree, can be null
+     */
+    private void recycle(Node<T> node) {
+        if (node == null || poolSize >= poolCapacity) {
+            return;
+        }
+        node.reset(null);
+        node.setLeft(pool);
+        pool = node;
+        poolSize++;
+    }
+
+    /**
+     * Starts pooling deleted nodes so that later inserts reuse them instead of allocating,
+     * which lets a steady mix of inserts and deletes run without creating garbage.
+     * The pool keeps at most the given number of nodes, and more are left to the garbage collector.
+     * Calling this again changes the capacity, trimming the pool if needed. <br>
+     * Deleted nodes get new keys when they are reused, so references to nodes must not be kept after deleting
+     * them, or after deleting any key in a plain tree, where deleting can move keys to other nodes.
+     * @param capacity largest number of nodes to keep, must not be negative
+     */
+    public void enableNodePool(int capacity) {
+        if (capacity < 0) {
+            throw new RuntimeException("Enable node pool failed: capacity is negative");
+        }
+        poolCapacity = capacity;
+        trimNodePool(capacity);
+    }
+
+    /** Stops pooling nodes and lets the pooled ones be garbage collected. */
+    public void disableNodePool() {
+        poolCapacity = 0;
+        trimNodePool(0);
+    }
+
+    /**
+     * Drops pooled nodes until at most the given number are left, for example after a burst of deletes.
+     * @param size largest number of nodes to keep in the pool
+     */
+    public void trimNodePool(int size) {
+        while (poolSize > Math.max(size, 0)) {
+            Node<T> node = pool;
+            pool = node.getLeft();
+            node.setLeft(null);
+            poolSize--;
+        }
+    }
+
+    /** @return the number of deleted nodes waiting to be reused */
+    public int nodePoolSize() {
+        return poolSize;
+    }
+
     /**
      * Deletes a node from the tree.
      * Throws a runtime exception if the node is null / does not exist.
@@ -105,11 +447,217 @@ public class SearchTree<T extends Comparable<T>> {
         if (node == null) {
             throw new RuntimeException("Delete failed: element not present in tree");
         }
-        if (!SearchTreeProcedures.delete(node)) { // something failed, see if it's the root node
-            if (node == root) {
-                root = null;
+        finger = null;
+        TreeMetrics metrics = this.metrics;
+        if (metrics == null) {
+            recycle(deleteNode(node));
+            return;
+        }
+        int pathLength = SearchTreeProcedures.depth(node) + 1;
+        long start = System.nanoTime();
+        recycle(deleteNode(node));
+        metrics.record(TreeMetrics.Operation.DELETE, pathLength, 0, System.nanoTime() - start);
+        metrics.recordSize(size());
+    }
+
+    /**
+     * Does the work of delete, subclasses that restructure the tree on delete should override this.
+     * @param node node to be deleted, not null
+     * @return the node object that left the tree, which can differ from the deleted node if keys were moved
+     * between nodes, or null if nothing was removed
+     */
+    protected Node<T> deleteNode(Node<T> node) {
+        Node<T> removed = SearchTreeProcedures.remove(node);
+        if (removed == null && node == root) { // a root without children has no parent to unlink it from
+            root = null;
+            removed = node;
+        }
+        return removed;
+    }
+
+    /**
+     * Starts collecting operation metrics for this tree, or returns the metrics already being collected.
+     * @return the tree's metrics
+     */
+    public TreeMetrics enableMetrics() {
+        if (metrics == null) {
+            metrics = new TreeMetrics(size());
+        }
+        return metrics;
+    }
+
+    /** Stops collecting operation metrics, operations go back to not being measured at all. */
+    public void disableMetrics() {
+        metrics = null;
+    }
+
+    /**
+     * Starts finger searches: search, floor, ceiling, lower, higher and range scans start from the last node
+     * one of them found instead of from the root. They climb the parent links from there only as far as needed,
+     * so lookups near the previous one take time logarithmic in the distance between them in a balanced tree. <br>
+     * Finger searches change the tree's state, so the tree can't be read from several threads at once.
+     * Inserts and deletes forget the finger, and the next lookup starts from the root again.
+     */
+    public void enableFingerSearch() {
+        fingerSearch = true;
+    }
+
+    /** Goes back to starting every lookup from the root. */
+    public void disableFingerSearch() {
+        fingerSearch = false;
+        finger = null;
+    }
+
+    /**
+     * Finds a node starting from the finger and moves the finger to it.
+     * From the finger it climbs until it reaches a subtree whose key range holds the key,
+     * with the parent of that subtree bounding the range from the far side, and then descends normally.
+     * @param key key to search for
+     * @param mode kind of search
+     * @return the matching node or null if none exists
+     */
+    private Node<T> fingerFind(T key, int mode) {
+        Node<T> node = root;
+        int depth = 0;
+        Node<T> result = null;
+        int resultDepth = 0;
+        if (finger != null) {
+            node = finger;
+            depth = fingerDepth;
+            int comparison = compare(key, finger.getKey());
+            if (comparison == 0 && mode != LOWER && mode != HIGHER) {
+                // repeated lookups of the same key don't need to move at all
+                if (mode == EXACT) {
+                    finger.setData(fingerDepth);
+                }
+                return finger;
+            }
+            int direction = comparison != 0 ? comparison : (mode == LOWER ? -1 : 1);
+            while (node.getParent() != null) {
+                Node<T> parent = node.getParent();
+                boolean fromLeft = node == parent.getLeft();
+                if (direction > 0 ? fromLeft && compare(key, parent.getKey()) < 0
+                        : !fromLeft && compare(key, parent.getKey()) > 0) {
+                    // the parent is the nearest key past the subtree, so it answers the search if the subtree can't
+                    if (mode != EXACT) {
+                        result = parent;
+                        resultDepth = depth - 1;
+                    }
+                    break;
+                }
+                node = parent;
+                depth--;
+            }
+        }
+        while (node != null) {
+            int comparison = compare(key, node.getKey());
+            if (comparison == 0 && mode != LOWER && mode != HIGHER) {
+                result = node;
+                resultDepth = depth;
+                break;
+            }
+            if (comparison < 0 || (comparison == 0 && mode == LOWER)) {
+                if (mode == CEILING || mode == HIGHER) {
+                    result = node;
+                    resultDepth = depth;
+                }
+                node = node.getLeft();
+            } else {
+                if (mode == FLOOR || mode == LOWER) {
+                    result = node;
+                    resultDepth = depth;
+                }
+                node = node.getRight();
+            }
+            depth++;
+        }
+        if (result != null) {
+            finger = result;
+            fingerDepth = resultDepth;
+            if (mode == EXACT) {
+                result.setData(resultDepth);
+            }
+        }
+        return result;
+    }
+
+    private void startMetering() {
+        metered = true;
+        comparisons = 0;
+        visited = 0;
+    }
+
+    /**
+     * Searches like {@link SearchTreeProcedures#search(Node, Object, Comparator)}, counting for the metrics.
+     * @param key key to search for
+     * @return a node matching the key or null if none exists
+     */
+    private Node<T> meteredSearch(T key) {
+        long prefix = prefix(key);
+        int depth = 0;
+        Node<T> node = root;
+        while (node != null) {
+            int comparison = meteredCompare(key, prefix, node);
+            if (comparison == 0) {
+                node.setData(depth);
+                return node;
+            }
+            node = comparison < 0 ? node.getLeft() : node.getRight();
+            depth++;
+        }
+        return null;
+    }
+
+    /**
+     * Inserts like {@link SearchTreeProcedures#insertNode(Node, Node, Comparator)}, counting for the metrics.
+     * @param insert node to insert, with no parent or children, into a tree that isn't empty
+     * @return whether the node was added, a false return means the key is a duplicate
+     */
+    private boolean meteredInsert(Node<T> insert) {
+        T key = insert.getKey();
+        long prefix = insert instanceof PrefixNode ? ((PrefixNode<T>) insert).getPrefix() : 0;
+        Node<T> node = null;
+        Node<T> next = root;
+        int comparison = 0;
+        while (next != null) {
+            node = next;
+            comparison = meteredCompare(key, prefix, node);
+            if (comparison == 0) {
+                return false;
             }
+            next = comparison < 0 ? node.getLeft() : node.getRight();
+        }
+        insert.setParent(node);
+        if (comparison < 0) {
+            node.setLeft(insert);
+        } else {
+            node.setRight(insert);
         }
+        SearchTreeProcedures.updateSizes(node);
+        return true;
+    }
+
+    /** @return the prefix of a key if the tree's nodes hold prefixes, which only they are compared with */
+    private long prefix(T key) {
+        return comparator instanceof PrefixComparator ? ((PrefixComparator<? super T>) comparator).prefix(key) : 0;
+    }
+
+    /** Compares a key with a node's key for a measured operation, by prefix first if the node has one. */
+    private int meteredCompare(T key, long prefix, Node<T> node) {
+        visited++;
+        if (node instanceof PrefixNode) {
+            long nodePrefix = ((PrefixNode<T>) node).getPrefix();
+            if (prefix != nodePrefix) {
+                return Long.compareUnsigned(prefix, nodePrefix);
+            }
+        }
+        comparisons++;
+        return order.compare(key, node.getKey());
+    }
+
+    /** @return the tree's metrics or null if they are disabled */
+    public TreeMetrics metrics() {
+        return metrics;
     }
 
     /** @return the tree's root */
@@ -117,9 +665,73 @@ public class SearchTree<T extends Comparable<T>> {
         return root;
     }
 
+    /** @return the comparator ordering the keys, or null if they use their natural ordering */
+    public Comparator<? super T> comparator() {
+        return comparator;
+    }
+
+    /** @return the function hashing the keys, or null if they are hashed by {@link MerkleProcedures#keyHash(Object)} */
+    public ToLongFunction<? super T> keyHash() {
+        return keyHash;
+    }
+
+    /** @return the comparator ordering the keys, which is the natural ordering if the tree has no comparator */
+    Comparator<? super T> order() {
+        return order;
+    }
+
+    /**
+     * Compares two keys in the tree's order, with a single comparison.
+     * Subclasses that descend the tree themselves should compare through this, once per node they visit,
+     * so that measured operations count their comparisons and path lengths.
+     * @param first first key
+     * @param second second key
+     * @return a negative number, zero, or a positive number as the first key is less than, equal to,
+     * or greater than the second
+     */
+    protected final int compare(T first, T second) {
+        if (metered) {
+            comparisons++;
+            visited++;
+        }
+        return order.compare(first, second);
+    }
+
+    /**
+     * Finds the rank of a key, which is the number of keys in the tree smaller than it.
+     * The key doesn't need to be in the tree.
+     * @param key key to find the rank of
+     * @return rank of the key
+     */
+    public int rank(T key) {
+        return SearchTreeProcedures.rank(root, key, order);
+    }
+
+    /**
+     * Finds the i-th smallest node of the tree, starting from 0.
+     * Throws a runtime exception if the index is out of range.
+     * @param index index of the node in sorted order
+     * @return node at the index
+     */
+    public Node<T> select(int index) {
+        if (index < 0 || index >= size()) {
+            throw new RuntimeException("Select failed: index out of range");
+        }
+        return SearchTreeProcedures.select(root, index);
+    }
+
     /** @return the size of the tree */
     public int size() {
-        return GeneralProcedures.size(root);
+        return root == null ? 0 : root.getSize();
+    }
+
+    /** Removes every key from the tree. The nodes are left to the garbage collector rather than pooled. */
+    public void clear() {
+        root = null;
+        finger = null;
+        if (metrics != null) {
+            metrics.recordSize(0);
+        }
     }
 
     /** @return the depth of the tree */
@@ -127,11 +739,82 @@ public class SearchTree<T extends Comparable<T>> {
         return GeneralProcedures.height(root);
     }
 
+    /**
+     * Checks the tree's invariants in parallel, see {@link ParallelProcedures#validate(Node)}.
+     * Throws a runtime exception describing a broken invariant.
+     */
+    public void validate() {
+        ParallelProcedures.validate(root, order);
+    }
+
+    /**
+     * Hashes the keys of the tree with its key hash, see {@link MerkleProcedures#hash(Node, ToLongFunction)}.
+     * Trees and snapshots holding the same keys have the same hash whatever their shape.
+     * @return the sum of the key hashes
+     */
+    public long contentHash() {
+        return MerkleProcedures.hash(root, hashing);
+    }
+
+    /**
+     * Finds the keys that are in only one of this tree and another, descending only into ranges whose hashes
+     * differ, see {@link MerkleProcedures#diff(Node, Node, Consumer, Consumer)}.
+     * Throws a runtime exception if the trees are ordered or hashed differently.
+     * @param other tree to compare with
+     * @param onlyHere called with each key that is only in this tree, in increasing order
+     * @param onlyOther called with each key that is only in the other tree, in increasing order
+     */
+    public void diff(SearchTree<T> other, Consumer<? super T> onlyHere, Consumer<? super T> onlyOther) {
+        if (!Objects.equals(comparator, other.comparator)) {
+            throw new RuntimeException("Diff failed: trees are ordered differently");
+        }
+        if (!Objects.equals(keyHash, other.keyHash)) {
+            throw new RuntimeException("Diff failed: trees hash keys differently");
+        }
+        MerkleProcedures.diff(root, other.root, order, hashing, onlyHere, onlyOther);
+    }
+
+    /**
+     * Finds the keys that are in only one of this tree and a snapshot,
+     * hashing the snapshot's keys with the tree's key hash,
+     * see {@link MerkleProcedures#diff(Node, TreeSnapshot, ToLongFunction, Consumer, Consumer)}.
+     * Throws a runtime exception if the tree has a comparator, since snapshots are in natural order.
+     * @param snapshot snapshot to compare with
+     * @param onlyHere called with each key that is only in this tree, in increasing order
+     * @param onlySnapshot called with each key that is only in the snapshot, in increasing order
+     */
+    public void diff(TreeSnapshot<T> snapshot, Consumer<? super T> onlyHere, Consumer<? super T> onlySnapshot) {
+        if (comparator != null) {
+            throw new RuntimeException("Diff failed: snapshots only support the natural ordering");
+        }
+        MerkleProcedures.diff(root, snapshot, hashing, onlyHere, onlySnapshot);
+    }
+
     /** @return a sorted list of the elements in the tree */
     public List<T> sorted() {
         return GeneralProcedures.inorder(root);
     }
 
+    /**
+     * Creates a lazy stream of the keys in sorted order.
+     * The stream splits at subtrees, so parallel streams divide the tree evenly between threads.
+     * The tree should not be changed while the stream is in use.
+     * @return a stream of the keys in the tree
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(GeneralProcedures.inorderSpliterator(root, comparator), false);
+    }
+
+    /**
+     * Packs the keys into an immutable array layout that is faster to search, see {@link FrozenSearchTree}.
+     * The tree itself is not changed, and later changes to it don't affect the frozen copy.
+     * The frozen copy keeps the tree's ordering.
+     * @return a frozen copy of the tree
+     */
+    public FrozenSearchTree<T> freeze() {
+        return new FrozenSearchTree<>(GeneralProcedures.inorderIterator(root), size(), comparator);
+    }
+
     /**
      * @return a visual string representation of the tree, made for monospace fonts, won't work well on large trees
      */
@@ -0,0 +1,781 @@
+package BinaryTree;
+
+import java.util.*;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * A sorted map backed by a {@link RedBlackTree}, implementing the full {@link NavigableMap} interface
+ * so it can be used in place of a {@link TreeMap}. Each node of the tree also holds the value of its key. <br>
+ * Sub-map, head-map, tail-map and descending views are instances of this class that share the same tree
+ * and only differ in their bounds and direction, so changes through a view are seen by the whole map.
+ * Views count their size with the subtree sizes kept in the nodes, in logarithmic time. <br>
+ * Keys are ordered by their natural ordering or by a comparator given to the constructor.
+ * Keys can't be null, values can. Like {@link TreeMap}, this class is not thread-safe.
+ * Iterators are fail-fast like those of {@link TreeMap}: changing the map other than through the iterator
+ * makes the iterator throw a {@link ConcurrentModificationException} on a best-effort basis.
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+@SuppressWarnings("unchecked") // the tree only ever holds entries, so its nodes can be cast back
+public class SearchTreeMap<K, V> extends AbstractMap<K, V> implements NavigableMap<K, V> {
+
+    /**
+     * A tree node that also holds a value. The live entries handed out by entry set iterators are the nodes.
+     * @param <K> the key type
+     * @param <V> the value type
+     */
+    private static final class Entry<K, V> extends Node<K> implements Map.Entry<K, V> {
+        private V value;
+
+        Entry(K key) {
+            super(key, null, null, null);
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            V old = this.value;
+            this.value = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            return getKey().equals(entry.getKey()) && Objects.equals(value, entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + value;
+        }
+    }
+
+    /**
+     * A red-black tree whose nodes are entries, which counts the changes to its structure for the iterators.
+     * @param <K> the key type
+     * @param <V> the value type
+     */
+    private static final class EntryTree<K, V> extends RedBlackTree<K> {
+        private int modCount;
+
+        EntryTree(Comparator<? super K> comparator) {
+            super(comparator);
+        }
+
+        @Override
+        protected Node<K> createNode(K key) {
+            return new Entry<K, V>(key);
+        }
+
+        /**
+         * Finds the entry of a key, adding one in the same descent if there is none, so a put only searches once.
+         * Unlike other trees, this doesn't throw if the key already exists.
+         * @param key key to find or add
+         * @return the existing entry or the added one
+         */
+        @Override
+        protected Node<K> insertKey(K key) {
+            Node<K> parent = null;
+            Node<K> node = root;
+            int comparison = 0;
+            while (node != null) {
+                comparison = compare(key, node.getKey());
+                if (comparison == 0) {
+                    return node;
+                }
+                parent = node;
+                node = comparison < 0 ? node.getLeft() : node.getRight();
+            }
+            Node<K> entry = createNode(key);
+            if (parent == null) {
+                root = entry;
+            } else {
+                entry.setParent(parent);
+                if (comparison < 0) {
+                    parent.setLeft(entry);
+                } else {
+                    parent.setRight(entry);
+                }
+                SearchTreeProcedures.updateSizes(parent);
+            }
+            root = RedBlackProcedures.insertFixup(root, entry);
+            modCount++;
+            return entry;
+        }
+
+        @Override
+        protected Node<K> deleteNode(Node<K> node) {
+            modCount++;
+            return super.deleteNode(node);
+        }
+
+        @Override
+        public void clear() {
+            modCount++;
+            super.clear();
+        }
+    }
+
+    private final EntryTree<K, V> tree;
+    // bounds of the view, in ascending order no matter the direction of the view
+    private final boolean fromStart;
+    private final K low;
+    private final boolean lowInclusive;
+    private final boolean toEnd;
+    private final K high;
+    private final boolean highInclusive;
+    private final boolean descending;
+
+    /** Creates an empty map ordered by the natural ordering of its keys, which must be {@link Comparable}. */
+    public SearchTreeMap() {
+        this((Comparator<? super K>) null);
+    }
+
+    /**
+     * Creates an empty map ordered by a comparator, which should be consistent with equals.
+     * @param comparator order of the keys, or null for their natural ordering
+     */
+    public SearchTreeMap(Comparator<? super K> comparator) {
+        this(new EntryTree<>(comparator), true, null, false, true, null, false, false);
+    }
+
+    /**
+     * Creates a map holding the same mappings as another map, ordered by the natural ordering of its keys.
+     * @param map map to copy
+     */
+    public SearchTreeMap(Map<? extends K, ? extends V> map) {
+        this();
+        putAll(map);
+    }
+
+    /**
+     * Creates a map holding the same mappings as a sorted map, in the same order.
+     * @param map map to copy
+     */
+    public SearchTreeMap(SortedMap<K, ? extends V> map) {
+        this(map.comparator());
+        putAll(map);
+    }
+
+    private SearchTreeMap(EntryTree<K, V> tree, boolean fromStart, K low, boolean lowInclusive,
+                          boolean toEnd, K high, boolean highInclusive, boolean descending) {
+        this.tree = tree;
+        this.fromStart = fromStart;
+        this.low = low;
+        this.lowInclusive = lowInclusive;
+        this.toEnd = toEnd;
+        this.high = high;
+        this.highInclusive = highInclusive;
+        this.descending = descending;
+    }
+
+    @Override
+    public int size() {
+        if (fromStart && toEnd) {
+            return tree.size();
+        }
+        // count the keys below each bound using the subtree sizes
+        int below = fromStart ? 0 : tree.rank(low) + (!lowInclusive && tree.search(low) != null ? 1 : 0);
+        int upTo = toEnd ? tree.size() : tree.rank(high) + (highInclusive && tree.search(high) != null ? 1 : 0);
+        return Math.max(0, upTo - below);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return absoluteLowest() == null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return getEntry(key) != null;
+    }
+
+    @Override
+    public V get(Object key) {
+        Entry<K, V> entry = getEntry(key);
+        return entry == null ? null : entry.value;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Objects.requireNonNull(key);
+        if (!inRange(key)) {
+            throw new IllegalArgumentException("key out of range");
+        }
+        // the tree returns the existing entry for a key it already holds
+        Entry<K, V> entry = (Entry<K, V>) tree.insert(key);
+        return entry.setValue(value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        Entry<K, V> entry = getEntry(key);
+        if (entry == null) {
+            return null;
+        }
+        tree.delete(entry);
+        return entry.value;
+    }
+
+    @Override
+    public void clear() {
+        if (fromStart && toEnd) {
+            tree.clear();
+        } else {
+            super.clear();
+        }
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return descending ? Collections.reverseOrder(tree.comparator()) : tree.comparator();
+    }
+
+    @Override
+    public Map.Entry<K, V> lowerEntry(K key) {
+        return export(descending ? absoluteHigher(key) : absoluteLower(key));
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return keyOf(descending ? absoluteHigher(key) : absoluteLower(key));
+    }
+
+    @Override
+    public Map.Entry<K, V> floorEntry(K key) {
+        return export(descending ? absoluteCeiling(key) : absoluteFloor(key));
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return keyOf(descending ? absoluteCeiling(key) : absoluteFloor(key));
+    }
+
+    @Override
+    public Map.Entry<K, V> ceilingEntry(K key) {
+        return export(descending ? absoluteFloor(key) : absoluteCeiling(key));
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return keyOf(descending ? absoluteFloor(key) : absoluteCeiling(key));
+    }
+
+    @Override
+    public Map.Entry<K, V> higherEntry(K key) {
+        return export(descending ? absoluteLower(key) : absoluteHigher(key));
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return keyOf(descending ? absoluteLower(key) : absoluteHigher(key));
+    }
+
+    @Override
+    public Map.Entry<K, V> firstEntry() {
+        return export(first());
+    }
+
+    @Override
+    public Map.Entry<K, V> lastEntry() {
+        return export(last());
+    }
+
+    @Override
+    public K firstKey() {
+        Entry<K, V> entry = first();
+        if (entry == null) {
+            throw new NoSuchElementException();
+        }
+        return entry.getKey();
+    }
+
+    @Override
+    public K lastKey() {
+        Entry<K, V> entry = last();
+        if (entry == null) {
+            throw new NoSuchElementException();
+        }
+        return entry.getKey();
+    }
+
+    @Override
+    public Map.Entry<K, V> pollFirstEntry() {
+        return poll(first());
+    }
+
+    @Override
+    public Map.Entry<K, V> pollLastEntry() {
+        return poll(last());
+    }
+
+    @Override
+    public NavigableMap<K, V> descendingMap() {
+        return new SearchTreeMap<>(tree, fromStart, low, lowInclusive, toEnd, high, highInclusive, !descending);
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        return new KeySet<>(this);
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return descendingMap().navigableKeySet();
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return navigableKeySet();
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new EntryIterator<>(SearchTreeMap.this);
+            }
+
+            @Override
+            public int size() {
+                return SearchTreeMap.this.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                if (!(o instanceof Map.Entry)) {
+                    return false;
+                }
+                Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+                Entry<K, V> node = getEntry(entry.getKey());
+                return node != null && Objects.equals(node.value, entry.getValue());
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                if (!contains(o)) {
+                    return false;
+                }
+                SearchTreeMap.this.remove(((Map.Entry<?, ?>) o).getKey());
+                return true;
+            }
+
+            @Override
+            public void clear() {
+                SearchTreeMap.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        Objects.requireNonNull(fromKey);
+        Objects.requireNonNull(toKey);
+        int order = compare(fromKey, toKey);
+        if (descending ? order < 0 : order > 0) {
+            throw new IllegalArgumentException("fromKey > toKey");
+        }
+        return descending
+                ? view(false, toKey, toInclusive, false, fromKey, fromInclusive)
+                : view(false, fromKey, fromInclusive, false, toKey, toInclusive);
+    }
+
+    @Override
+    public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        Objects.requireNonNull(toKey);
+        return descending
+                ? view(false, toKey, inclusive, true, null, false)
+                : view(true, null, false, false, toKey, inclusive);
+    }
+
+    @Override
+    public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        Objects.requireNonNull(fromKey);
+        return descending
+                ? view(true, null, false, false, fromKey, inclusive)
+                : view(false, fromKey, inclusive, true, null, false);
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    /**
+     * Creates a narrower view with ascending bounds, which must lie within this view's bounds.
+     */
+    private SearchTreeMap<K, V> view(boolean fromStart, K low, boolean lowInclusive,
+                                     boolean toEnd, K high, boolean highInclusive) {
+        if (!fromStart && !inRange(low, lowInclusive)) {
+            throw new IllegalArgumentException("fromKey out of range");
+        }
+        if (!toEnd && !inRange(high, highInclusive)) {
+            throw new IllegalArgumentException("toKey out of range");
+        }
+        if (fromStart) { // keep this view's lower bound
+            fromStart = this.fromStart;
+            low = this.low;
+            lowInclusive = this.lowInclusive;
+        }
+        if (toEnd) { // keep this view's upper bound
+            toEnd = this.toEnd;
+            high = this.high;
+            highInclusive = this.highInclusive;
+        }
+        return new SearchTreeMap<>(tree, fromStart, low, lowInclusive, toEnd, high, highInclusive, descending);
+    }
+
+    private int compare(K a, K b) {
+        return tree.compare(a, b);
+    }
+
+    private boolean tooLow(K key) {
+        if (fromStart) {
+            return false;
+        }
+        int comparison = compare(key, low);
+        return comparison < 0 || (comparison == 0 && !lowInclusive);
+    }
+
+    private boolean tooHigh(K key) {
+        if (toEnd) {
+            return false;
+        }
+        int comparison = compare(key, high);
+        return comparison > 0 || (comparison == 0 && !highInclusive);
+    }
+
+    private boolean inRange(K key) {
+        return !tooLow(key) && !tooHigh(key);
+    }
+
+    /** @return whether a key is in range, also allowing it to equal an exclusive bound if it is exclusive itself */
+    private boolean inRange(K key, boolean inclusive) {
+        if (inclusive) {
+            return inRange(key);
+        }
+        return (fromStart || compare(key, low) >= 0) && (toEnd || compare(key, high) <= 0);
+    }
+
+    private Entry<K, V> getEntry(Object key) {
+        K k = (K) Objects.requireNonNull(key);
+        if (!inRange(k)) {
+            return null;
+        }
+        return (Entry<K, V>) tree.search(k);
+    }
+
+    private Entry<K, V> first() {
+        return descending ? absoluteHighest() : absoluteLowest();
+    }
+
+    private Entry<K, V> last() {
+        return descending ? absoluteLowest() : absoluteHighest();
+    }
+
+    /** @return the entry after another one in the direction of the view, or null if it is the last in range */
+    private Entry<K, V> next(Entry<K, V> entry) {
+        Entry<K, V> next = (Entry<K, V>) (descending
+                ? SearchTreeProcedures.predecessor(entry)
+                : SearchTreeProcedures.successor(entry));
+        return next == null || !inRange(next.getKey()) ? null : next;
+    }
+
+    private Entry<K, V> absoluteLowest() {
+        Node<K> node;
+        if (fromStart) {
+            node = tree.root() == null ? null : SearchTreeProcedures.minimum(tree.root());
+        } else {
+            node = lowInclusive ? tree.ceiling(low) : tree.higher(low);
+        }
+        return node == null || tooHigh(node.getKey()) ? null : (Entry<K, V>) node;
+    }
+
+    private Entry<K, V> absoluteHighest() {
+        Node<K> node;
+        if (toEnd) {
+            node = tree.root() == null ? null : SearchTreeProcedures.maximum(tree.root());
+        } else {
+            node = highInclusive ? tree.floor(high) : tree.lower(high);
+        }
+        return node == null || tooLow(node.getKey()) ? null : (Entry<K, V>) node;
+    }
+
+    private Entry<K, V> absoluteCeiling(K key) {
+        if (tooLow(key)) {
+            return absoluteLowest();
+        }
+        Node<K> node = tree.ceiling(key);
+        return node == null || tooHigh(node.getKey()) ? null : (Entry<K, V>) node;
+    }
+
+    private Entry<K, V> absoluteHigher(K key) {
+        if (tooLow(key)) {
+            return absoluteLowest();
+        }
+        Node<K> node = tree.higher(key);
+        return node == null || tooHigh(node.getKey()) ? null : (Entry<K, V>) node;
+    }
+
+    private Entry<K, V> absoluteFloor(K key) {
+        if (tooHigh(key)) {
+            return absoluteHighest();
+        }
+        Node<K> node = tree.floor(key);
+        return node == null || tooLow(node.getKey()) ? null : (Entry<K, V>) node;
+    }
+
+    private Entry<K, V> absoluteLower(K key) {
+        if (tooHigh(key)) {
+            return absoluteHighest();
+        }
+        Node<K> node = tree.lower(key);
+        return node == null || tooLow(node.getKey()) ? null : (Entry<K, V>) node;
+    }
+
+    private Map.Entry<K, V> poll(Entry<K, V> entry) {
+        if (entry == null) {
+            return null;
+        }
+        Map.Entry<K, V> exported = export(entry);
+        tree.delete(entry);
+        return exported;
+    }
+
+    /** @return an immutable copy of an entry, like the navigation methods of {@link TreeMap} return */
+    private static <K, V> Map.Entry<K, V> export(Entry<K, V> entry) {
+        return entry == null ? null : new AbstractMap.SimpleImmutableEntry<>(entry);
+    }
+
+    private static <K> K keyOf(Entry<K, ?> entry) {
+        return entry == null ? null : entry.getKey();
+    }
+
+    /**
+     * Iterates over the entries of a view in its direction.
+     * Deleting from a red-black tree never moves keys between nodes, so removing the last returned entry
+     * doesn't disturb the next one. Any other change to the tree's structure fails the iterator.
+     * @param <K> the key type
+     * @param <V> the value type
+     */
+    private static class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        private final SearchTreeMap<K, V> map;
+        private Entry<K, V> next;
+        private Entry<K, V> last;
+        private int expectedModCount;
+
+        EntryIterator(SearchTreeMap<K, V> map) {
+            this.map = map;
+            next = map.first();
+            expectedModCount = map.tree.modCount;
+        }
+
+        private void checkForComodification() {
+            if (map.tree.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            checkForComodification();
+            last = next;
+            next = map.next(next);
+            return last;
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            checkForComodification();
+            map.tree.delete(last);
+            expectedModCount = map.tree.modCount;
+            last = null;
+        }
+    }
+
+    /**
+     * A navigable set view of the keys of a map.
+     * @param <K> the key type
+     */
+    private static final class KeySet<K> extends AbstractSet<K> implements NavigableSet<K> {
+        private final SearchTreeMap<K, ?> map;
+
+        KeySet(SearchTreeMap<K, ?> map) {
+            this.map = map;
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            Iterator<? extends Map.Entry<K, ?>> entries = new EntryIterator<>(map);
+            return new Iterator<K>() {
+                @Override
+                public boolean hasNext() {
+                    return entries.hasNext();
+                }
+
+                @Override
+                public K next() {
+                    return entries.next().getKey();
+                }
+
+                @Override
+                public void remove() {
+                    entries.remove();
+                }
+            };
+        }
+
+        @Override
+        public Iterator<K> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return map.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return map.containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!map.containsKey(o)) {
+                return false;
+            }
+            map.remove(o);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            map.clear();
+        }
+
+        @Override
+        public K lower(K key) {
+            return map.lowerKey(key);
+        }
+
+        @Override
+        public K floor(K key) {
+            return map.floorKey(key);
+        }
+
+        @Override
+        public K ceiling(K key) {
+            return map.ceilingKey(key);
+        }
+
+        @Override
+        public K higher(K key) {
+            return map.higherKey(key);
+        }
+
+        @Override
+        public K first() {
+            return map.firstKey();
+        }
+
+        @Override
+        public K last() {
+            return map.lastKey();
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return map.comparator();
+        }
+
+        @Override
+        public K pollFirst() {
+            return keyOf(map.pollFirstEntry());
+        }
+
+        @Override
+        public K pollLast() {
+            return keyOf(map.pollLastEntry());
+        }
+
+        @Override
+        public NavigableSet<K> descendingSet() {
+            return map.descendingMap().navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<K> subSet(K fromElement, boolean fromInclusive, K toElement, boolean toInclusive) {
+            return map.subMap(fromElement, fromInclusive, toElement, toInclusive).navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<K> headSet(K toElement, boolean inclusive) {
+            return map.headMap(toElement, inclusive).navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<K> tailSet(K fromElement, boolean inclusive) {
+            return map.tailMap(fromElement, inclusive).navigableKeySet();
+        }
+
+        @Override
+        public SortedSet<K> subSet(K fromElement, K toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<K> headSet(K toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<K> tailSet(K fromElement) {
+            return tailSet(fromElement, true);
+        }
+
+        private static <K> K keyOf(Map.Entry<K, ?> entry) {
+            return entry == null ? null : entry.getKey();
+        }
+    }
+}
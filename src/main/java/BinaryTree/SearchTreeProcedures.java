@@ -1,7 +1,15 @@
 package BinaryTree;
 
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
 /**
- * Last edited 1/5/2021 <br>
+ * Last edited 10/16/2026 <br>
  * A collection of static procedures commonly used on binary search trees. <br>
  * The syntax before each method is to allow for generic typing. This allows
  * the methods to run on nodes that use any kind of comparable object.
@@ -9,6 +17,19 @@ package BinaryTree;
  */
 public class SearchTreeProcedures {
 
+    // bulk loads with at least this many keys build subtrees in parallel
+    private static final int PARALLEL_BUILD_THRESHOLD = 1 << 16;
+
+    /**
+     * @param <T> key type
+     * @return the natural ordering of keys whose type isn't known to be comparable,
+     * which throws a ClassCastException for keys that aren't, like a TreeMap without a comparator
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Comparator<T> naturalOrder() {
+        return (Comparator<T>) (Comparator<?>) Comparator.naturalOrder();
+    }
+
     /**
      * Finds a node matching a given key. Sets the data field of the node to its depth
      * @param root root node
@@ -17,26 +38,452 @@ public class SearchTreeProcedures {
      * @return a Node matching the key or null if none exists
      */
     public static <T extends Comparable<T>> Node<T> search(Node<T> root, T key) {
+        return searchNatural(root, key);
+    }
+
+    /**
+     * Finds a node matching a given key by the natural ordering of keys whose type isn't known to be comparable,
+     * for trees without a comparator. Keys that aren't comparable throw a ClassCastException, like in a TreeMap.
+     * @param root root node
+     * @param key key to search for
+     * @param <T> node key type
+     * @return a Node matching the key or null if none exists
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Node<T> searchNatural(Node<T> root, T key) {
+        Comparable<? super T> comparable = (Comparable<? super T>) key;
         int depth = 0;
-        Node<T> node = null;
-        Node<T> next = root;
-        while (next != null) {
-            node = next;
-            if (key.compareTo(node.getKey()) < 0) {
-                next = node.getLeft();
-            } else if (key.compareTo(node.getKey()) > 0) {
-                next = node.getRight();
+        Node<T> node = root;
+        while (node != null) {
+            int comparison = comparable.compareTo(node.getKey());
+            if (comparison < 0) {
+                node = node.getLeft();
+            } else if (comparison > 0) {
+                node = node.getRight();
             } else {
-                break;
+                node.setData(depth);
+                return node;
             }
             depth++;
         }
-        if (node != null && node.getKey() == key) {
-            node.setData(depth);
-            return node;
-        } else {
+        return null;
+    }
+
+    /**
+     * Finds a node matching a given key in a tree ordered by a comparator. Sets the data field of the node to its
+     * depth. With a {@link PrefixComparator}, nodes holding prefixes are compared by prefix first.
+     * @param root root node
+     * @param key key to search for
+     * @param comparator order of the tree's keys
+     * @param <T> node key type
+     * @return a Node matching the key or null if none exists
+     */
+    public static <T> Node<T> search(Node<T> root, T key, Comparator<? super T> comparator) {
+        PrefixComparator<? super T> prefixes = comparator instanceof PrefixComparator
+                ? (PrefixComparator<? super T>) comparator : null;
+        long prefix = prefixes == null ? 0 : prefixes.prefix(key);
+        int depth = 0;
+        Node<T> node = root;
+        while (node != null) {
+            int comparison = prefixes == null ? comparator.compare(key, node.getKey())
+                    : compare(key, prefix, node, prefixes);
+            if (comparison < 0) {
+                node = node.getLeft();
+            } else if (comparison > 0) {
+                node = node.getRight();
+            } else {
+                node.setData(depth);
+                return node;
+            }
+            depth++;
+        }
+        return null;
+    }
+
+    /** Compares a key with a node's key, looking at the node's prefix first if it has one. */
+    private static <T> int compare(T key, long prefix, Node<T> node, PrefixComparator<? super T> comparator) {
+        if (node instanceof PrefixNode) {
+            long nodePrefix = ((PrefixNode<T>) node).getPrefix();
+            if (prefix != nodePrefix) {
+                return Long.compareUnsigned(prefix, nodePrefix);
+            }
+        }
+        return comparator.compare(key, node.getKey());
+    }
+
+    /**
+     * Finds the nodes matching a batch of keys. The keys are visited in increasing order, sorting them first if
+     * they aren't already, and each search resumes from the lowest node on the previous search path whose subtree
+     * can hold the next key instead of starting again at the root. Nearby keys then share most of their paths,
+     * and a dense batch costs about as much as walking through the keys with successor.
+     * Unlike {@link #search(Node, Object)}, the data fields of the nodes are left alone.
+     * @param root root node, can be null
+     * @param keys keys to search for, in any order and possibly repeated
+     * @param results array that receives the node matching each key, or null, at the key's index
+     * @param <T> node key type
+     * @return the number of keys that were found
+     */
+    public static <T extends Comparable<T>> int searchAll(Node<T> root, T[] keys, Node<T>[] results) {
+        return searchAll(root, keys, results, Comparator.naturalOrder());
+    }
+
+    /**
+     * Finds the nodes matching a batch of keys in a tree ordered by a comparator,
+     * see {@link #searchAll(Node, Comparable[], Node[])}.
+     * @param root root node, can be null
+     * @param keys keys to search for, in any order and possibly repeated
+     * @param results array that receives the node matching each key, or null, at the key's index
+     * @param comparator order of the tree's keys
+     * @param <T> node key type
+     * @return the number of keys that were found
+     */
+    public static <T> int searchAll(Node<T> root, T[] keys, Node<T>[] results, Comparator<? super T> comparator) {
+        if (results.length < keys.length) {
+            throw new RuntimeException("Search all failed: results array is too short");
+        }
+        return searchAll(root, keys, results, null, comparator);
+    }
+
+    /**
+     * Checks which keys of a batch are in a tree, sharing search paths like {@link #searchAll(Node, Comparable[],
+     * Node[])}.
+     * @param root root node, can be null
+     * @param keys keys to search for, in any order and possibly repeated
+     * @param results array that receives whether each key was found, at the key's index
+     * @param <T> node key type
+     * @return the number of keys that were found
+     */
+    public static <T extends Comparable<T>> int containsAll(Node<T> root, T[] keys, boolean[] results) {
+        return containsAll(root, keys, results, Comparator.naturalOrder());
+    }
+
+    /**
+     * Checks which keys of a batch are in a tree ordered by a comparator,
+     * see {@link #containsAll(Node, Comparable[], boolean[])}.
+     * @param root root node, can be null
+     * @param keys keys to search for, in any order and possibly repeated
+     * @param results array that receives whether each key was found, at the key's index
+     * @param comparator order of the tree's keys
+     * @param <T> node key type
+     * @return the number of keys that were found
+     */
+    public static <T> int containsAll(Node<T> root, T[] keys, boolean[] results, Comparator<? super T> comparator) {
+        if (results.length < keys.length) {
+            throw new RuntimeException("Contains all failed: results array is too short");
+        }
+        return searchAll(root, keys, null, results, comparator);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> int searchAll(Node<T> root, T[] keys, Node<T>[] nodes, boolean[] found,
+                                     Comparator<? super T> comparator) {
+        int[] order = increasingOrder(keys, comparator);
+        // the previous search path, and for each node on it the closest ancestor the path went left at,
+        // which bounds the keys of the node's subtree from above
+        Node<T>[] path = (Node<T>[]) new Node<?>[32];
+        Node<T>[] limits = (Node<T>[]) new Node<?>[32];
+        int length = 0;
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            int index = order == null ? i : order[i];
+            T key = keys[index];
+            // keys only increase, so the subtrees on the path are already bounded from below
+            while (length > 0 && limits[length - 1] != null
+                    && comparator.compare(key, limits[length - 1].getKey()) >= 0) {
+                Node<T> limit = limits[--length];
+                while (length > 0 && limits[length - 1] == limit) { // same bound, already compared
+                    length--;
+                }
+            }
+            Node<T> node = root;
+            Node<T> limit = null;
+            if (length > 0) {
+                length--;
+                node = path[length];
+                limit = limits[length];
+            }
+            while (node != null) {
+                if (length == path.length) {
+                    path = Arrays.copyOf(path, length * 2);
+                    limits = Arrays.copyOf(limits, length * 2);
+                }
+                path[length] = node;
+                limits[length++] = limit;
+                int comparison = comparator.compare(key, node.getKey());
+                if (comparison < 0) {
+                    limit = node;
+                    node = node.getLeft();
+                } else if (comparison > 0) {
+                    node = node.getRight();
+                } else {
+                    break;
+                }
+            }
+            if (node != null) {
+                count++;
+            }
+            if (nodes != null) {
+                nodes[index] = node;
+            } else {
+                found[index] = node != null;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return null if the keys are already in increasing order, or else the indices of the keys in increasing order,
+     * found by a bottom-up merge sort
+     */
+    private static <T> int[] increasingOrder(T[] keys, Comparator<? super T> comparator) {
+        int n = keys.length;
+        int i = 1;
+        while (i < n && comparator.compare(keys[i - 1], keys[i]) <= 0) {
+            i++;
+        }
+        if (i >= n) {
             return null;
         }
+        int[] order = new int[n];
+        int[] buffer = new int[n];
+        for (i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        for (int width = 1; width < n; width *= 2) {
+            for (int start = 0; start < n; start += 2 * width) {
+                int middle = Math.min(start + width, n);
+                int end = Math.min(start + 2 * width, n);
+                int left = start;
+                int right = middle;
+                for (int k = start; k < end; k++) {
+                    if (left < middle
+                            && (right >= end || comparator.compare(keys[order[left]], keys[order[right]]) <= 0)) {
+                        buffer[k] = order[left++];
+                    } else {
+                        buffer[k] = order[right++];
+                    }
+                }
+            }
+            int[] swap = order;
+            order = buffer;
+            buffer = swap;
+        }
+        return order;
+    }
+
+    /**
+     * Finds the node with the largest key less than or equal to a given key
+     * @param root root node, can be null
+     * @param key key to compare with, doesn't need to be in the tree
+     * @param <T> node key type
+     * @return the matching node or null if none exists
+     */
+    public static <T extends Comparable<T>> Node<T> floor(Node<T> root, T key) {
+        return floor(root, key, Comparator.naturalOrder());
+    }
+
+    /**
+     * Does the same as {@link #floor(Node, Comparable)} in a tree ordered by a comparator
+     * @param root root node, can be null
+     * @param key key to compare with, doesn't need to be in the tree
+     * @param comparator order of the tree's keys
+     * @param <T> node key type
+     * @return the matching node or null if none exists
+     */
+    public static <T> Node<T> floor(Node<T> root, T key, Comparator<? super T> comparator) {
+        Node<T> floor = null;
+        Node<T> node = root;
+        while (node != null) {
+            int comparison = comparator.compare(key, node.getKey());
+            if (comparison == 0) {
+                return node;
+            } else if (comparison > 0) {
+                floor = node;
+                node = node.getRight();
+            } else {
+                node = node.getLeft();
+            }
+        }
+        return floor;
+    }
+
+    /**
+     * Finds the node with the smallest key greater than or equal to a given key
+     * @param root root node, can be null
+     * @param key key to compare with, doesn't need to be in the tree
+     * @param <T> node key type
+     * @return the matching node or null if none exists
+     */
+    public static <T extends Comparable<T>> Node<T> ceiling(Node<T> root, T key) {
+        return ceiling(root, key, Comparator.naturalOrder());
+    }
+
+    /**
+     * Does the same as {@link #ceiling(Node, Comparable)} in a tree ordered by a comparator
+     * @param root root node, can be null
+     * @param key key to compare with, doesn't need to be in the tree
+     * @param comparator order of the tree's keys
+     * @param <T> node key type
+     * @return the matching node or null if none exists
+     */
+    public static <T> Node<T> ceiling(Node<T> root, T key, Comparator<? super T> comparator) {
+        Node<T> ceiling = null;
+        Node<T> node = root;
+        while (node != null) {
+            int comparison = comparator.compare(key, node.getKey());
+            if (comparison == 0) {
+                return node;
+            } else if (comparison < 0) {
+                ceiling = node;
+                node = node.getLeft();
+            } else {
+                node = node.getRight();
+            }
+        }
+        return ceiling;
+    }
+
+    /**
+     * Finds the node with the largest key strictly less than a given key
+     * @param root root node, can be null
+     * @param key key to compare with, doesn't need to be in the tree
+     * @param <T> node key type
+     * @return the matching node or null if none exists
+     */
+    public static <T extends Comparable<T>> Node<T> lower(Node<T> root, T key) {
+        return lower(root, key, Comparator.naturalOrder());
+    }
+
+    /**
+     * Does the same as {@link #lower(Node, Comparable)} in a tree ordered by a comparator
+     * @param root root node, can be null
+     * @param key key to compare with, doesn't need to be in the tree
+     * @param comparator order of the tree's keys
+     * @param <T> node key type
+     * @return the matching node or null if none exists
+     */
+    public static <T> Node<T> lower(Node<T> root, T key, Comparator<? super T> comparator) {
+        Node<T> lower = null;
+        Node<T> node = root;
+        while (node != null) {
+            if (comparator.compare(key, node.getKey()) > 0) {
+                lower = node;
+                node = node.getRight();
+            } else {
+                node = node.getLeft();
+            }
+        }
+        return lower;
+    }
+
+    /**
+     * Finds the node with the smallest key strictly greater than a given key
+     * @param root root node, can be null
+     * @param key key to compare with, doesn't need to be in the tree
+     * @param <T> node key type
+     * @return the matching node or null if none exists
+     */
+    public static <T extends Comparable<T>> Node<T> higher(Node<T> root, T key) {
+        return higher(root, key, Comparator.naturalOrder());
+    }
+
+    /**
+     * Does the same as {@link #higher(Node, Comparable)} in a tree ordered by a comparator
+     * @param root root node, can be null
+     * @param key key to compare with, doesn't need to be in the tree
+     * @param comparator order of the tree's keys
+     * @param <T> node key type
+     * @return the matching node or null if none exists
+     */
+    public static <T> Node<T> higher(Node<T> root, T key, Comparator<? super T> comparator) {
+        Node<T> higher = null;
+        Node<T> node = root;
+        while (node != null) {
+            if (comparator.compare(key, node.getKey()) < 0) {
+                higher = node;
+                node = node.getLeft();
+            } else {
+                node = node.getRight();
+            }
+        }
+        return higher;
+    }
+
+    /**
+     * Creates a lazy iterator over the keys in a range, in increasing order.
+     * The iterator descends once to the first key and then follows successors,
+     * so iterating k keys takes O(height + k) time.
+     * The tree should not be changed while iterating.
+     * @param root root node, can be null
+     * @param from lowest key of the range, inclusive, or null for no lower bound
+     * @param to highest key of the range, exclusive, or null for no upper bound
+     * @param <T> node key type
+     * @return an iterator over the keys in the range
+     */
+    public static <T extends Comparable<T>> Iterator<T> rangeIterator(Node<T> root, T from, T to) {
+        return rangeIterator(root, from, to, Comparator.naturalOrder());
+    }
+
+    /**
+     * Creates a lazy iterator over the keys in a range of a tree ordered by a comparator,
+     * see {@link #rangeIterator(Node, Comparable, Comparable)}.
+     * @param root root node, can be null
+     * @param from lowest key of the range, inclusive, or null for no lower bound
+     * @param to highest key of the range, exclusive, or null for no upper bound
+     * @param comparator order of the tree's keys
+     * @param <T> node key type
+     * @return an iterator over the keys in the range
+     */
+    public static <T> Iterator<T> rangeIterator(Node<T> root, T from, T to, Comparator<? super T> comparator) {
+        Node<T> first;
+        if (root == null) {
+            first = null;
+        } else {
+            first = from == null ? minimum(root) : ceiling(root, from, comparator);
+        }
+        return iteratorFrom(first, to, comparator);
+    }
+
+    /**
+     * Creates a lazy iterator that follows successors from a node, in increasing order.
+     * The tree should not be changed while iterating.
+     * @param first node with the first key, or null for an empty iterator
+     * @param to highest key of the range, exclusive, or null for no upper bound
+     * @param <T> node key type
+     * @return an iterator over the keys from the node up to the bound
+     */
+    public static <T extends Comparable<T>> Iterator<T> iteratorFrom(Node<T> first, T to) {
+        return iteratorFrom(first, to, Comparator.naturalOrder());
+    }
+
+    /**
+     * Creates a lazy iterator that follows successors from a node in a tree ordered by a comparator,
+     * see {@link #iteratorFrom(Node, Comparable)}.
+     * @param first node with the first key, or null for an empty iterator
+     * @param to highest key of the range, exclusive, or null for no upper bound
+     * @param comparator order of the tree's keys
+     * @param <T> node key type
+     * @return an iterator over the keys from the node up to the bound
+     */
+    public static <T> Iterator<T> iteratorFrom(Node<T> first, T to, Comparator<? super T> comparator) {
+        return new Iterator<T>() {
+            private Node<T> next = first;
+
+            @Override
+            public boolean hasNext() {
+                return next != null && (to == null || comparator.compare(next.getKey(), to) < 0);
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T key = next.getKey();
+                next = successor(next);
+                return key;
+            }
+        };
     }
 
     /**
@@ -112,29 +559,196 @@ public class SearchTreeProcedures {
      * @return added node or null if the key is a duplicate
      */
     public static <T extends Comparable<T>> Node<T> insert(Node<T> root, T key) {
+        Node<T> insert = new Node<>(key, null, null, null);
+        return insertNode(root, insert) ? insert : null;
+    }
+
+    /**
+     * Inserts a detached node into the tree, which lets callers create their own kinds of nodes
+     * @param root root node, should not be null
+     * @param insert node to insert, should have no parent or children
+     * @param <T> node key type
+     * @return whether the node was added, a false return means the key is a duplicate
+     */
+    public static <T extends Comparable<T>> boolean insertNode(Node<T> root, Node<T> insert) {
+        return insertNodeNatural(root, insert);
+    }
+
+    /**
+     * Inserts a detached node by the natural ordering of keys whose type isn't known to be comparable,
+     * see {@link #searchNatural(Node, Object)}.
+     * @param root root node, should not be null
+     * @param insert node to insert, should have no parent or children
+     * @param <T> node key type
+     * @return whether the node was added, a false return means the key is a duplicate
+     */
+    @SuppressWarnings("unchecked")
+    static <T> boolean insertNodeNatural(Node<T> root, Node<T> insert) {
         // using an assertion so that the condition is more explicit than letting the method throw an exception later
         assert root != null;
+        Comparable<? super T> key = (Comparable<? super T>) insert.getKey();
         // find the parent node to insert on
         Node<T> node = null;
         Node<T> next = root;
+        int comparison = 0;
         while (next != null) {
             node = next;
-            if (key.compareTo(node.getKey()) < 0) {
+            comparison = key.compareTo(node.getKey());
+            if (comparison < 0) {
                 next = node.getLeft();
-            } else if (key.compareTo(node.getKey()) > 0) {
+            } else if (comparison > 0) {
                 next = node.getRight();
             } else {
-                return null;
+                return false;
             }
         }
         // insert
-        Node<T> insert = new Node<>(key, node, null, null);
-        if (key.compareTo(node.getKey()) < 0) {
+        insert.setParent(node);
+        if (comparison < 0) {
+            node.setLeft(insert);
+        } else {
+            node.setRight(insert);
+        }
+        updateSizes(node);
+        return true;
+    }
+
+    /**
+     * Inserts a detached node into a tree ordered by a comparator, see {@link #insertNode(Node, Node)}.
+     * With a {@link PrefixComparator}, nodes holding prefixes are compared by prefix first.
+     * @param root root node, should not be null
+     * @param insert node to insert, should have no parent or children
+     * @param comparator order of the tree's keys
+     * @param <T> node key type
+     * @return whether the node was added, a false return means the key is a duplicate
+     */
+    public static <T> boolean insertNode(Node<T> root, Node<T> insert, Comparator<? super T> comparator) {
+        assert root != null;
+        T key = insert.getKey();
+        PrefixComparator<? super T> prefixes = comparator instanceof PrefixComparator
+                ? (PrefixComparator<? super T>) comparator : null;
+        long prefix = insert instanceof PrefixNode ? ((PrefixNode<T>) insert).getPrefix()
+                : prefixes == null ? 0 : prefixes.prefix(key);
+        Node<T> node = null;
+        Node<T> next = root;
+        int comparison = 0;
+        while (next != null) {
+            node = next;
+            comparison = prefixes == null ? comparator.compare(key, node.getKey())
+                    : compare(key, prefix, node, prefixes);
+            if (comparison < 0) {
+                next = node.getLeft();
+            } else if (comparison > 0) {
+                next = node.getRight();
+            } else {
+                return false;
+            }
+        }
+        insert.setParent(node);
+        if (comparison < 0) {
             node.setLeft(insert);
         } else {
             node.setRight(insert);
         }
-        return insert;
+        updateSizes(node);
+        return true;
+    }
+
+    /**
+     * Replaces the subtree rooted at one node with the subtree rooted at another node.
+     * The replaced node's own fields are left untouched.
+     * If the replaced node has no parent, the caller is responsible for making the new node the root.
+     * @param node node to be replaced
+     * @param replacement node taking its place, can be null
+     * @param <T> node key type
+     */
+    public static <T> void transplant(Node<T> node, Node<T> replacement) {
+        Node<T> parent = node.getParent();
+        if (parent != null) {
+            if (node == parent.getLeft()) {
+                parent.setLeft(replacement);
+            } else {
+                parent.setRight(replacement);
+            }
+        }
+        if (replacement != null) {
+            replacement.setParent(parent);
+        }
+    }
+
+    /**
+     * Rotates a node to the left, so that its right child takes its place.
+     * The binary search properties are preserved.
+     * @param node node to rotate, must have a right child
+     * @param <T> node key type
+     * @return the node that took its place, which is the new root if the rotated node had no parent
+     */
+    public static <T> Node<T> rotateLeft(Node<T> node) {
+        Node<T> pivot = node.getRight();
+        node.setRight(pivot.getLeft());
+        if (pivot.getLeft() != null) {
+            pivot.getLeft().setParent(node);
+        }
+        transplant(node, pivot);
+        pivot.setLeft(node);
+        node.setParent(pivot);
+        node.updateSize();
+        pivot.updateSize();
+        return pivot;
+    }
+
+    /**
+     * Rotates a node to the right, so that its left child takes its place.
+     * The binary search properties are preserved.
+     * @param node node to rotate, must have a left child
+     * @param <T> node key type
+     * @return the node that took its place, which is the new root if the rotated node had no parent
+     */
+    public static <T> Node<T> rotateRight(Node<T> node) {
+        Node<T> pivot = node.getLeft();
+        node.setLeft(pivot.getRight());
+        if (pivot.getRight() != null) {
+            pivot.getRight().setParent(node);
+        }
+        transplant(node, pivot);
+        pivot.setRight(node);
+        node.setParent(pivot);
+        node.updateSize();
+        pivot.updateSize();
+        return pivot;
+    }
+
+    /**
+     * Splays a node to the root with rotations, moving the nodes on its path roughly halfway up as well.
+     * Repeatedly accessed nodes stay near the root, and sequences of accesses take amortized logarithmic time.
+     * @param node node to move to the root
+     * @param <T> node key type
+     * @return the node, which is now the root
+     */
+    public static <T> Node<T> splay(Node<T> node) {
+        while (node.getParent() != null) {
+            Node<T> parent = node.getParent();
+            Node<T> grandparent = parent.getParent();
+            boolean left = node == parent.getLeft();
+            if (grandparent == null) { // zig
+                rotate(parent, left);
+            } else if (left == (parent == grandparent.getLeft())) { // zig-zig
+                rotate(grandparent, left);
+                rotate(parent, left);
+            } else { // zig-zag
+                rotate(parent, left);
+                rotate(grandparent, !left);
+            }
+        }
+        return node;
+    }
+
+    private static <T> void rotate(Node<T> node, boolean right) {
+        if (right) {
+            rotateRight(node);
+        } else {
+            rotateLeft(node);
+        }
     }
 
     /**
@@ -145,37 +759,285 @@ public class SearchTreeProcedures {
      * in which case the method can't do anything to dereference it
      */
     public static <T> boolean delete(Node<T> node) {
+        return remove(node) != null;
+    }
+
+    /**
+     * Delete a node like {@link #delete(Node)}, and find out which node object left the tree.
+     * Keys are copied between nodes in some cases, so this isn't always the node that was passed in.
+     * @param node node to be removed
+     * @param <T> node key type
+     * @return the node object that is no longer in the tree, or null if the node has no parent and no children
+     * in which case the method can't do anything to dereference it
+     */
+    public static <T> Node<T> remove(Node<T> node) {
+        Node<T> removed;
         if (node.getLeft() == null) { // replace node with right child or delete node entirely
             if (node.getRight() != null) {
-                node.copyData(node.getRight(), false);
+                removed = node.getRight();
+                node.copyData(removed, false);
+                updateSizes(node);
             } else if (node.getParent() != null) { // if the child has no children we delete it
+                removed = node;
                 if (node == node.getParent().getLeft()) {
                     node.getParent().setLeft(null);
                 } else {
                     node.getParent().setRight(null);
                 }
+                updateSizes(node.getParent());
             } else { // if it has no parent then we can't properly handle it
-                return false;
+                return null;
             }
         } else if (node.getRight() == null) { // replace node with left child
-            node.copyData(node.getLeft(), false);
+            removed = node.getLeft();
+            node.copyData(removed, false);
+            updateSizes(node);
         } else {
             // if the node has two children, we take the successor and replace it with its single child,
             // and then replace the node with the successor's key
             Node<T> successor = successor(node);
-            node.setKey(successor.getKey());
+            node.copyKey(successor);
             if (successor.getRight() != null) {
-                successor.copyData(successor.getRight(), false);
+                removed = successor.getRight();
+                successor.copyData(removed, false);
+                updateSizes(successor);
             } else {
                 // delete successor from its parent
+                removed = successor;
                 Node<T> parent = successor.getParent();
                 if (parent.getLeft() == successor) {
                     parent.setLeft(null);
                 } else {
                     parent.setRight(null);
                 }
+                updateSizes(parent);
             }
         }
-        return true;
+        return removed;
+    }
+
+    /**
+     * Counts the nodes a search or insert for a key visits, which is also the number of key comparisons it makes
+     * @param root root node, can be null
+     * @param key key to search for
+     * @param <T> node key type
+     * @return the number of nodes on the path from the root to the key, or to where it would be inserted
+     */
+    public static <T extends Comparable<T>> int pathLength(Node<T> root, T key) {
+        return pathLength(root, key, Comparator.naturalOrder());
+    }
+
+    /**
+     * Counts the nodes a search or insert for a key visits in a tree ordered by a comparator
+     * @param root root node, can be null
+     * @param key key to search for
+     * @param comparator order of the tree's keys
+     * @param <T> node key type
+     * @return the number of nodes on the path from the root to the key, or to where it would be inserted
+     */
+    public static <T> int pathLength(Node<T> root, T key, Comparator<? super T> comparator) {
+        int length = 0;
+        Node<T> node = root;
+        while (node != null) {
+            length++;
+            int comparison = comparator.compare(key, node.getKey());
+            if (comparison == 0) {
+                break;
+            }
+            node = comparison < 0 ? node.getLeft() : node.getRight();
+        }
+        return length;
+    }
+
+    /**
+     * @param node node to find the depth of
+     * @param <T> node key type
+     * @return the number of ancestors of the node, 0 for the root
+     */
+    public static <T> int depth(Node<T> node) {
+        int depth = 0;
+        for (Node<T> parent = node.getParent(); parent != null; parent = parent.getParent()) {
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * Recalculates the subtree sizes of a node and all of its ancestors,
+     * should be called on the lowest node whose children changed.
+     * @param node node to start from, can be null
+     * @param <T> node key type
+     */
+    public static <T> void updateSizes(Node<T> node) {
+        while (node != null) {
+            node.updateSize();
+            node = node.getParent();
+        }
+    }
+
+    /**
+     * Finds the rank of a key, which is the number of keys in the tree smaller than it.
+     * The key doesn't need to be in the tree.
+     * @param root root node, can be null
+     * @param key key to find the rank of
+     * @param <T> node key type
+     * @return rank of the key
+     */
+    public static <T extends Comparable<T>> int rank(Node<T> root, T key) {
+        return rank(root, key, Comparator.naturalOrder());
+    }
+
+    /**
+     * Finds the rank of a key in a tree ordered by a comparator
+     * @param root root node
+     * @param key key to find the rank of
+     * @param comparator order of the tree's keys
+     * @param <T> node key type
+     * @return the number of keys in the tree smaller than the key
+     */
+    public static <T> int rank(Node<T> root, T key, Comparator<? super T> comparator) {
+        int rank = 0;
+        Node<T> node = root;
+        while (node != null) {
+            int comparison = comparator.compare(key, node.getKey());
+            if (comparison <= 0) {
+                node = node.getLeft();
+            } else {
+                rank += 1 + size(node.getLeft());
+                node = node.getRight();
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Finds the node with a given rank, the smallest node having rank 0.
+     * @param root root node
+     * @param rank rank of the node, should be less than the size of the tree
+     * @param <T> node key type
+     * @return node with the given rank or null if the rank is out of range
+     */
+    public static <T> Node<T> select(Node<T> root, int rank) {
+        Node<T> node = root;
+        while (node != null) {
+            int leftSize = size(node.getLeft());
+            if (rank < leftSize) {
+                node = node.getLeft();
+            } else if (rank > leftSize) {
+                rank -= leftSize + 1;
+                node = node.getRight();
+            } else {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Builds a perfectly balanced tree from strictly increasing keys in linear time.
+     * Parent links and subtree sizes are set. Large inputs build their halves in parallel on the common pool.
+     * Throws a runtime exception if the keys are not strictly increasing.
+     * @param keys keys in increasing order, should allow fast random access
+     * @param colored whether to color the nodes as a valid red-black tree
+     * @param <T> node key type
+     * @return root of the tree or null if there are no keys
+     */
+    public static <T extends Comparable<T>> Node<T> buildFromSorted(List<T> keys, boolean colored) {
+        return buildFromSorted(keys, colored, Comparator.naturalOrder());
+    }
+
+    /**
+     * Builds a perfectly balanced tree from keys that strictly increase by a comparator,
+     * see {@link #buildFromSorted(List, boolean)}.
+     * @param keys keys in increasing order, should allow fast random access
+     * @param colored whether to color the nodes as a valid red-black tree
+     * @param comparator order of the keys
+     * @param <T> node key type
+     * @return root of the tree or null if there are no keys
+     */
+    public static <T> Node<T> buildFromSorted(List<T> keys, boolean colored, Comparator<? super T> comparator) {
+        for (int i = 1; i < keys.size(); i++) {
+            if (comparator.compare(keys.get(i - 1), keys.get(i)) >= 0) {
+                throw new RuntimeException("Bulk load failed: keys are not strictly increasing");
+            }
+        }
+        // every leaf ends up on the last level or the one above it,
+        // so coloring only the last level red keeps the same number of black nodes on every path
+        int height = 32 - Integer.numberOfLeadingZeros(keys.size());
+        int redDepth = colored && height > 1 ? height - 1 : -1;
+        if (keys.size() < PARALLEL_BUILD_THRESHOLD) {
+            return buildFromSorted(keys, 0, keys.size(), 0, redDepth);
+        }
+        return ForkJoinPool.commonPool().invoke(new BuildTask<>(keys, 0, keys.size(), 0, redDepth));
+    }
+
+    /**
+     * Utility method for buildFromSorted, builds the subtree for a range of keys.
+     * @param keys all keys
+     * @param from first index of the range, inclusive
+     * @param to last index of the range, exclusive
+     * @param depth depth of the subtree's root
+     * @param redDepth depth at which nodes are colored red, -1 for none
+     * @param <T> node key type
+     * @return root of the subtree or null if the range is empty
+     */
+    private static <T> Node<T> buildFromSorted(List<T> keys, int from, int to, int depth, int redDepth) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        Node<T> left = buildFromSorted(keys, from, middle, depth + 1, redDepth);
+        Node<T> right = buildFromSorted(keys, middle + 1, to, depth + 1, redDepth);
+        return joinBuilt(keys.get(middle), left, right, depth == redDepth);
+    }
+
+    private static <T> Node<T> joinBuilt(T key, Node<T> left, Node<T> right, boolean red) {
+        Node<T> node = new Node<>(key, null, left, right);
+        node.setRed(red);
+        if (left != null) {
+            left.setParent(node);
+        }
+        if (right != null) {
+            right.setParent(node);
+        }
+        return node;
+    }
+
+    /**
+     * Utility class for buildFromSorted, builds the two halves of a large range in parallel.
+     * @param <T> node key type
+     */
+    @SuppressWarnings("serial") // tasks are never serialized
+    private static final class BuildTask<T> extends RecursiveTask<Node<T>> {
+
+        private final List<T> keys;
+        private final int from;
+        private final int to;
+        private final int depth;
+        private final int redDepth;
+
+        BuildTask(List<T> keys, int from, int to, int depth, int redDepth) {
+            this.keys = keys;
+            this.from = from;
+            this.to = to;
+            this.depth = depth;
+            this.redDepth = redDepth;
+        }
+
+        @Override
+        protected Node<T> compute() {
+            if (to - from < PARALLEL_BUILD_THRESHOLD) {
+                return buildFromSorted(keys, from, to, depth, redDepth);
+            }
+            int middle = (from + to) >>> 1;
+            BuildTask<T> left = new BuildTask<>(keys, from, middle, depth + 1, redDepth);
+            left.fork();
+            Node<T> right = new BuildTask<>(keys, middle + 1, to, depth + 1, redDepth).compute();
+            return joinBuilt(keys.get(middle), left.join(), right, depth == redDepth);
+        }
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.getSize();
     }
 }
@@ -0,0 +1,109 @@
+package BinaryTree;
+
+import java.util.Comparator;
+import java.util.function.ToLongFunction;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * A binary search tree that splays accessed nodes to the root, see {@link SearchTreeProcedures#splay(Node)}.
+ * Searches, inserts and deletes move the nodes they touch toward the root, so a small set of hot keys
+ * stays within a few steps of it, and any sequence of operations takes amortized logarithmic time per operation.
+ * A search for a missing key splays the last node it visited. <br>
+ * Searches change the tree's shape, so the tree can't be read from several threads at once.
+ * The other lookups don't splay, and with finger search enabled they start from the last node they found,
+ * while searches always start from the root since the last accessed node is already there.
+ * Like the red-black tree, deleting never copies keys between nodes.
+ * @param <T> the key type of the tree's nodes
+ */
+public class SplayTree<T> extends SearchTree<T> {
+
+    /** Creates an empty tree ordered by the natural ordering of its keys, which must be {@link Comparable}. */
+    public SplayTree() {
+    }
+
+    /**
+     * Creates an empty tree ordered by a comparator, see {@link SearchTree#SearchTree(Comparator)}.
+     * @param comparator order of the keys, or null for their natural ordering
+     */
+    public SplayTree(Comparator<? super T> comparator) {
+        super(comparator);
+    }
+
+    /**
+     * Creates an empty tree ordered by a comparator and hashed by a key hash,
+     * see {@link SearchTree#SearchTree(Comparator, ToLongFunction)}.
+     * @param comparator order of the keys, or null for their natural ordering
+     * @param keyHash hashes a key to 64 bits, or null for {@link MerkleProcedures#keyHash(Object)}
+     */
+    public SplayTree(Comparator<? super T> comparator, ToLongFunction<? super T> keyHash) {
+        super(comparator, keyHash);
+    }
+
+    /**
+     * Finds a node matching a given key and splays it to the root.
+     * The data field of the node is set to its depth before splaying.
+     * @param key key to search for
+     * @return a node matching the key or null if none exists
+     */
+    @Override
+    protected Node<T> searchKey(T key) {
+        int depth = 0;
+        Node<T> last = null;
+        Node<T> node = root;
+        while (node != null) {
+            int comparison = compare(key, node.getKey());
+            if (comparison == 0) {
+                node.setData(depth);
+                break;
+            }
+            last = node;
+            node = comparison < 0 ? node.getLeft() : node.getRight();
+            depth++;
+        }
+        if (node != null) {
+            root = SearchTreeProcedures.splay(node);
+        } else if (last != null) {
+            root = SearchTreeProcedures.splay(last);
+        }
+        return node;
+    }
+
+    @Override
+    protected Node<T> insertKey(T key) {
+        Node<T> node = super.insertKey(key);
+        root = SearchTreeProcedures.splay(node);
+        return node;
+    }
+
+    /**
+     * Splays the node to the root, removes it, and joins its subtrees by splaying the largest key
+     * of the left subtree to the top of it and hanging the right subtree off of that.
+     * @param node node to be deleted, not null
+     * @return the deleted node, which has left the tree
+     */
+    @Override
+    protected Node<T> deleteNode(Node<T> node) {
+        SearchTreeProcedures.splay(node);
+        Node<T> left = node.getLeft();
+        Node<T> right = node.getRight();
+        node.setLeft(null);
+        node.setRight(null);
+        node.updateSize();
+        if (left == null) {
+            if (right != null) {
+                right.setParent(null);
+            }
+            root = right;
+            return node;
+        }
+        left.setParent(null);
+        Node<T> joined = SearchTreeProcedures.splay(SearchTreeProcedures.maximum(left));
+        joined.setRight(right);
+        if (right != null) {
+            right.setParent(joined);
+        }
+        joined.updateSize();
+        root = joined;
+        return node;
+    }
+}
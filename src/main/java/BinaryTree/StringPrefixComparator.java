@@ -0,0 +1,53 @@
+package BinaryTree;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * The natural order of strings with prefixes that skip a shared beginning, see {@link PrefixComparator#strings}.
+ * Comparators with the same beginning are equal, so trees built with separate calls can still be merged and diffed.
+ */
+final class StringPrefixComparator implements PrefixComparator<String> {
+
+    // the top two bits say whether the key comes before, starts with, or comes after the shared start,
+    // and keys that start with it have their next characters in the remaining bytes
+    private static final int CHARACTERS = 7;
+
+    private final String start;
+
+    StringPrefixComparator(String start) {
+        this.start = start;
+    }
+
+    @Override
+    public long prefix(String key) {
+        if (!key.startsWith(start)) {
+            return key.compareTo(start) < 0 ? 0 : 2L << 62;
+        }
+        long prefix = 1L << 62;
+        int end = Math.min(key.length(), start.length() + CHARACTERS);
+        for (int i = start.length(); i < end; i++) {
+            char c = key.charAt(i);
+            // a character outside of Latin-1 can't be packed in order, so leave the rest to compare
+            int code = Math.min(c, 0xff);
+            prefix |= (long) code << (8 * (CHARACTERS - 1 - (i - start.length())));
+            if (code == 0xff) {
+                break;
+            }
+        }
+        return prefix;
+    }
+
+    @Override
+    public int compare(String first, String second) {
+        return first.compareTo(second);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof StringPrefixComparator && start.equals(((StringPrefixComparator) other).start);
+    }
+
+    @Override
+    public int hashCode() {
+        return start.hashCode();
+    }
+}
@@ -0,0 +1,328 @@
+package BinaryTree;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * Operation metrics for a {@link SearchTree}, collected after {@link SearchTree#enableMetrics()} is called.
+ * A tree without metrics only pays for a null check per operation, and a flag check per comparison in splay trees
+ * and finger searches. <br>
+ * Counted are the inserts, searches and deletes, the key comparisons they make, the number of nodes on the path
+ * each one visits, and their latencies. Both counts come from the operation's own descent. Each visited node costs
+ * one comparison, except in trees with a {@link PrefixComparator}, where nodes whose prefixes differ from the key's
+ * are passed without comparing keys, and deletes, which are given a node and make no comparisons. Finger searches
+ * also count the nodes they climb through. Long paths with few comparisons point at the shape of the tree,
+ * while slow operations on short paths point at the cost of comparing keys. <br>
+ * Latencies are kept in a histogram with 8 buckets per power of two, so percentiles are within about 12%.
+ * Metrics can be read through {@link #snapshot()} or over JMX after {@link #register(String)}.
+ * Recording is thread-safe, so metrics can be read from other threads while the tree is in use.
+ * The size and longest path are kept up to date by the measured operations, so reading them never touches the tree.
+ */
+public class TreeMetrics implements TreeMetricsMXBean {
+
+    /** The operations that are measured */
+    public enum Operation { INSERT, SEARCH, DELETE }
+
+    /** Paths of this many nodes or more share the last bucket of the path length histogram */
+    public static final int MAX_PATH_LENGTH = 64;
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LATENCY_BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(Operation.values().length);
+    private final AtomicLongArray comparisons = new AtomicLongArray(1);
+    private final AtomicLongArray pathLengths = new AtomicLongArray(MAX_PATH_LENGTH);
+    private final AtomicLongArray[] latencies = new AtomicLongArray[Operation.values().length];
+    private final AtomicInteger longestPath = new AtomicInteger();
+    private volatile int size;
+
+    TreeMetrics(int size) {
+        this.size = size;
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new AtomicLongArray(LATENCY_BUCKETS);
+        }
+    }
+
+    /**
+     * Records one operation.
+     * @param operation the type of operation
+     * @param pathLength number of nodes visited
+     * @param comparisons number of key comparisons made
+     * @param nanos time taken
+     */
+    void record(Operation operation, int pathLength, int comparisons, long nanos) {
+        counts.getAndIncrement(operation.ordinal());
+        this.comparisons.getAndAdd(0, comparisons);
+        pathLengths.getAndIncrement(Math.min(pathLength, MAX_PATH_LENGTH - 1));
+        if (pathLength > longestPath.get()) {
+            longestPath.accumulateAndGet(pathLength, Math::max);
+        }
+        latencies[operation.ordinal()].getAndIncrement(latencyBucket(nanos));
+    }
+
+    /**
+     * Records the size of the tree, called by the tree's own thread after each measured operation.
+     * @param size number of keys in the tree
+     */
+    void recordSize(int size) {
+        this.size = size;
+    }
+
+    /** @return an immutable copy of the current metrics */
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server.
+     * Throws a runtime exception if registering fails, for example because the name is taken.
+     * @param name name to tell this tree apart from others
+     * @return the name the metrics were registered under
+     */
+    public ObjectName register(String name) {
+        try {
+            ObjectName objectName = new ObjectName("BinaryTree:type=SearchTree,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new RuntimeException("Register metrics failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Finds an approximate latency percentile of an operation.
+     * @param operation the type of operation
+     * @param percentile percentile between 0 and 100
+     * @return the latency in nanoseconds, 0 if the operation hasn't been recorded
+     */
+    public long latencyPercentile(Operation operation, double percentile) {
+        return percentile(copy(latencies[operation.ordinal()]), percentile);
+    }
+
+    public long count(Operation operation) {
+        return counts.get(operation.ordinal());
+    }
+
+    @Override
+    public long getInserts() {
+        return count(Operation.INSERT);
+    }
+
+    @Override
+    public long getSearches() {
+        return count(Operation.SEARCH);
+    }
+
+    @Override
+    public long getDeletes() {
+        return count(Operation.DELETE);
+    }
+
+    @Override
+    public long getComparisons() {
+        return comparisons.get(0);
+    }
+
+    @Override
+    public long[] getPathLengthHistogram() {
+        return copy(pathLengths);
+    }
+
+    @Override
+    public long getInsertLatencyP50() {
+        return latencyPercentile(Operation.INSERT, 50);
+    }
+
+    @Override
+    public long getInsertLatencyP99() {
+        return latencyPercentile(Operation.INSERT, 99);
+    }
+
+    @Override
+    public long getSearchLatencyP50() {
+        return latencyPercentile(Operation.SEARCH, 50);
+    }
+
+    @Override
+    public long getSearchLatencyP99() {
+        return latencyPercentile(Operation.SEARCH, 99);
+    }
+
+    @Override
+    public long getSearchLatencyP999() {
+        return latencyPercentile(Operation.SEARCH, 99.9);
+    }
+
+    @Override
+    public long getDeleteLatencyP50() {
+        return latencyPercentile(Operation.DELETE, 50);
+    }
+
+    @Override
+    public long getDeleteLatencyP99() {
+        return latencyPercentile(Operation.DELETE, 99);
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public int getLongestPath() {
+        return longestPath.get();
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        comparisons.set(0, 0);
+        for (int i = 0; i < pathLengths.length(); i++) {
+            pathLengths.set(i, 0);
+        }
+        longestPath.set(0);
+        for (AtomicLongArray histogram : latencies) {
+            for (int i = 0; i < histogram.length(); i++) {
+                histogram.set(i, 0);
+            }
+        }
+    }
+
+    /**
+     * Finds the bucket of a latency. Values under 8 get their own bucket,
+     * larger values are split into 8 buckets per power of two.
+     */
+    private static int latencyBucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) Math.max(nanos, 0);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /** @return the largest latency that falls in a bucket */
+    private static long latencyBucketLimit(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long low = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return low + (1L << shift) - 1;
+    }
+
+    private static long percentile(long[] histogram, double percentile) {
+        long total = 0;
+        for (long count : histogram) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            seen += histogram[i];
+            if (seen >= target) {
+                return latencyBucketLimit(i);
+            }
+        }
+        return latencyBucketLimit(histogram.length - 1);
+    }
+
+    private static long[] copy(AtomicLongArray array) {
+        long[] copy = new long[array.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = array.get(i);
+        }
+        return copy;
+    }
+
+    /**
+     * An immutable copy of a tree's metrics at one point in time.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long comparisons;
+        private final long[] pathLengths;
+        private final long[][] latencies;
+        private final int size;
+        private final int longestPath;
+
+        private Snapshot(TreeMetrics metrics) {
+            counts = copy(metrics.counts);
+            comparisons = metrics.comparisons.get(0);
+            pathLengths = copy(metrics.pathLengths);
+            latencies = new long[metrics.latencies.length][];
+            for (int i = 0; i < latencies.length; i++) {
+                latencies[i] = copy(metrics.latencies[i]);
+            }
+            size = metrics.size;
+            longestPath = metrics.longestPath.get();
+        }
+
+        public long count(Operation operation) {
+            return counts[operation.ordinal()];
+        }
+
+        public long comparisons() {
+            return comparisons;
+        }
+
+        /** @return the number of operations that visited each number of nodes, the last entry counts longer paths too */
+        public long[] pathLengthHistogram() {
+            return pathLengths.clone();
+        }
+
+        /** @return the average number of nodes an operation visited */
+        public double averagePathLength() {
+            long total = 0;
+            long weighted = 0;
+            for (int i = 0; i < pathLengths.length; i++) {
+                total += pathLengths[i];
+                weighted += i * pathLengths[i];
+            }
+            return total == 0 ? 0 : (double) weighted / total;
+        }
+
+        /**
+         * @param operation the type of operation
+         * @param percentile percentile between 0 and 100
+         * @return the approximate latency in nanoseconds, 0 if the operation hasn't been recorded
+         */
+        public long latencyPercentile(Operation operation, double percentile) {
+            return percentile(latencies[operation.ordinal()], percentile);
+        }
+
+        /** @return the size of the tree after its last measured operation */
+        public int size() {
+            return size;
+        }
+
+        /** @return the most nodes a measured operation visited, see {@link TreeMetricsMXBean#getLongestPath()} */
+        public int longestPath() {
+            return longestPath;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder string = new StringBuilder();
+            for (Operation operation : Operation.values()) {
+                string.append(operation).append(": ").append(count(operation))
+                        .append(" (p50 ").append(latencyPercentile(operation, 50))
+                        .append("ns, p99 ").append(latencyPercentile(operation, 99)).append("ns), ");
+            }
+            return string.append("comparisons: ").append(comparisons)
+                    .append(", average path: ").append(String.format("%.2f", averagePathLength()))
+                    .append(", size: ").append(size)
+                    .append(", longest path: ").append(longestPath).toString();
+        }
+    }
+}
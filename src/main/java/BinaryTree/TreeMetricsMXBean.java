@@ -0,0 +1,46 @@
+package BinaryTree;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * The JMX view of a tree's {@link TreeMetrics}. Latencies are in nanoseconds.
+ */
+public interface TreeMetricsMXBean {
+
+    long getInserts();
+
+    long getSearches();
+
+    long getDeletes();
+
+    /** @return total number of key comparisons made by inserts and searches */
+    long getComparisons();
+
+    /** @return the number of operations that visited each number of nodes, the last entry counts longer paths too */
+    long[] getPathLengthHistogram();
+
+    long getInsertLatencyP50();
+
+    long getInsertLatencyP99();
+
+    long getSearchLatencyP50();
+
+    long getSearchLatencyP99();
+
+    long getSearchLatencyP999();
+
+    long getDeleteLatencyP50();
+
+    long getDeleteLatencyP99();
+
+    /** @return the size of the tree after its last measured operation */
+    int getSize();
+
+    /**
+     * @return the most nodes a measured operation has visited since the last reset, which for operations starting
+     * at the root is at most the height of the tree, and reaches it once the deepest nodes have been searched
+     */
+    int getLongestPath();
+
+    /** Clears all counters. */
+    void reset();
+}
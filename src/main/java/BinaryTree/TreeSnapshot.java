@@ -0,0 +1,416 @@
+package BinaryTree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.function.ToLongFunction;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * A binary snapshot of a search tree's keys, saved to and memory-mapped from a file. <br>
+ * {@link #write(SearchTree, KeyCodec, Path)} streams the keys to the file in sorted order in one pass.
+ * {@link #load(Path, KeyCodec)} maps the file instead of reading it, so loading takes the same time
+ * for any number of keys. Lookups binary search the mapped keys directly, and only the pages they touch are read
+ * from disk. A snapshot can also be turned back into a balanced tree in linear time. <br>
+ * The file starts with a 64 byte header: a magic number, the format version, the key width, the length of the codec
+ * name, the number of keys, the offsets of the key data and of the index, and the codec name.
+ * Fixed width keys are stored back to back. Variable width keys are stored back to back as well,
+ * followed by an index of count + 1 offsets into the key data, so key i spans offsets i to i + 1.
+ * All numbers are big-endian.
+ * @param <T> the key type
+ */
+public class TreeSnapshot<T> implements Iterable<T> {
+
+    private static final int MAGIC = 0x42545331; // "BTS1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int MAX_NAME_LENGTH = 24;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+    // fixed width records are mapped in segments of at most this many bytes
+    private static final long SEGMENT_SIZE = 1L << 30;
+
+    private final KeyCodec<T> codec;
+    private final int size;
+    // fixed width keys, or the index for variable width keys
+    private final ByteBuffer[] records;
+    private final int recordsPerSegment;
+    private final int recordWidth;
+    // key data for variable width keys
+    private final ByteBuffer data;
+    // sums of the key hashes before each index, built the first time hashes are needed
+    private volatile PrefixHashes<T> prefixHashes;
+
+    private TreeSnapshot(KeyCodec<T> codec, int size, ByteBuffer[] records, int recordsPerSegment,
+                         int recordWidth, ByteBuffer data) {
+        this.codec = codec;
+        this.size = size;
+        this.records = records;
+        this.recordsPerSegment = recordsPerSegment;
+        this.recordWidth = recordWidth;
+        this.data = data;
+    }
+
+    /**
+     * Writes the keys of a tree to a file in one sequential pass, replacing the file if it exists.
+     * The file is forced to disk before returning.
+     * @param tree tree to save, should not be changed while writing
+     * @param codec codec for the keys
+     * @param path file to write
+     * @param <T> the key type
+     * @throws IOException if writing fails
+     */
+    public static <T extends Comparable<T>> void write(SearchTree<T> tree, KeyCodec<T> codec, Path path)
+            throws IOException {
+        write(() -> GeneralProcedures.inorderIterator(tree.root()), tree.size(), codec, path);
+    }
+
+    /**
+     * Writes keys in increasing order to a file, like {@link #write(SearchTree, KeyCodec, Path)}.
+     * Variable width keys are iterated twice, so the keys should not change while writing.
+     * Throws a runtime exception if the keys are not strictly increasing or there aren't as many as given.
+     * @param keys keys in increasing order
+     * @param count number of keys
+     * @param codec codec for the keys
+     * @param path file to write
+     * @param <T> the key type
+     * @throws IOException if writing fails
+     */
+    public static <T extends Comparable<T>> void write(Iterable<T> keys, int count, KeyCodec<T> codec, Path path)
+            throws IOException {
+        byte[] name = codec.name().getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME_LENGTH) {
+            throw new RuntimeException("Write snapshot failed: codec name is too long");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+            // the header is filled in at the end, once the offsets are known
+            buffer.position(HEADER_SIZE);
+            long dataSize = 0;
+            int written = 0;
+            T last = null;
+            for (T key : keys) {
+                if (last != null && last.compareTo(key) >= 0) {
+                    throw new RuntimeException("Write snapshot failed: keys are not strictly increasing");
+                }
+                last = key;
+                written++;
+                int length = codec.length(key);
+                if (codec.width() != KeyCodec.VARIABLE_WIDTH && length != codec.width()) {
+                    throw new RuntimeException("Write snapshot failed: codec wrote the wrong width");
+                }
+                buffer = ensureRemaining(channel, buffer, length);
+                codec.write(buffer, key);
+                dataSize += length;
+            }
+            if (written != count) {
+                throw new RuntimeException("Write snapshot failed: wrong number of keys");
+            }
+            long indexOffset = 0;
+            if (codec.width() == KeyCodec.VARIABLE_WIDTH) {
+                // the index is built from a second walk over the keys, so the offsets never need to be held in memory
+                indexOffset = HEADER_SIZE + dataSize;
+                long offset = 0;
+                buffer = ensureRemaining(channel, buffer, Long.BYTES);
+                buffer.putLong(offset);
+                for (T key : keys) {
+                    offset += codec.length(key);
+                    buffer = ensureRemaining(channel, buffer, Long.BYTES);
+                    buffer.putLong(offset);
+                }
+            }
+            flush(channel, buffer);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(codec.width()).putInt(name.length)
+                    .putLong(count).putLong(HEADER_SIZE).putLong(indexOffset).put(name);
+            header.clear();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Maps a snapshot file. The mapping stays valid after the method returns, and the file should not be changed
+     * while the snapshot is in use.
+     * Throws a runtime exception if the file is not a snapshot or was written with a different codec.
+     * @param path file to load
+     * @param codec codec the snapshot was written with
+     * @param <T> the key type
+     * @return the mapped snapshot
+     * @throws IOException if reading fails
+     */
+    public static <T extends Comparable<T>> TreeSnapshot<T> load(Path path, KeyCodec<T> codec) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new RuntimeException("Load snapshot failed: file is too short");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new RuntimeException("Load snapshot failed: not a snapshot file");
+            }
+            if (header.getInt() != VERSION) {
+                throw new RuntimeException("Load snapshot failed: unsupported version");
+            }
+            int width = header.getInt();
+            int nameLength = header.getInt();
+            if (nameLength < 0) {
+                throw new RuntimeException("Load snapshot failed: not a snapshot file");
+            }
+            byte[] name = new byte[Math.min(nameLength, MAX_NAME_LENGTH)];
+            long count = header.getLong();
+            long dataOffset = header.getLong();
+            long indexOffset = header.getLong();
+            header.get(name);
+            if (width != codec.width() || !codec.name().equals(new String(name, StandardCharsets.UTF_8))) {
+                throw new RuntimeException("Load snapshot failed: snapshot was written with a different codec");
+            }
+            if (count > Integer.MAX_VALUE) {
+                throw new RuntimeException("Load snapshot failed: too many keys");
+            }
+            if (width != KeyCodec.VARIABLE_WIDTH) {
+                int perSegment = (int) (SEGMENT_SIZE / width);
+                ByteBuffer[] records = map(channel, dataOffset, count, width, perSegment);
+                return new TreeSnapshot<>(codec, (int) count, records, perSegment, width, null);
+            }
+            long dataSize = indexOffset - dataOffset;
+            if (dataSize > Integer.MAX_VALUE) {
+                throw new RuntimeException("Load snapshot failed: variable width key data over 2GB is not supported");
+            }
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, dataOffset, dataSize);
+            int perSegment = (int) (SEGMENT_SIZE / Long.BYTES);
+            ByteBuffer[] index = map(channel, indexOffset, count + 1, Long.BYTES, perSegment);
+            return new TreeSnapshot<>(codec, (int) count, index, perSegment, Long.BYTES, data);
+        }
+    }
+
+    /** Maps a region of fixed width records in segments. */
+    private static ByteBuffer[] map(FileChannel channel, long offset, long count, int width, int perSegment)
+            throws IOException {
+        if (offset + count * width > channel.size()) {
+            throw new RuntimeException("Load snapshot failed: file is truncated");
+        }
+        int segments = (int) ((count + perSegment - 1) / perSegment);
+        ByteBuffer[] buffers = new ByteBuffer[segments];
+        for (int i = 0; i < segments; i++) {
+            long records = Math.min(perSegment, count - (long) i * perSegment);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                    offset + (long) i * perSegment * width, records * width);
+            buffers[i] = buffer;
+        }
+        return buffers;
+    }
+
+    private static ByteBuffer ensureRemaining(FileChannel channel, ByteBuffer buffer, int length) throws IOException {
+        if (buffer.remaining() < length) {
+            flush(channel, buffer);
+            if (buffer.capacity() < length) {
+                buffer = ByteBuffer.allocate(length);
+            }
+        }
+        return buffer;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /** @return the number of keys */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index index of the key in sorted order
+     * @return the key
+     */
+    public T key(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        if (data == null) {
+            return codec.read(segment(index), offset(index), recordWidth);
+        }
+        int start = keyStart(index);
+        return codec.read(data, start, keyStart(index + 1) - start);
+    }
+
+    /**
+     * @param key key to search for
+     * @return whether the key is in the snapshot
+     */
+    public boolean contains(T key) {
+        int index = lowerBound(key);
+        return index < size && compare(key, index) == 0;
+    }
+
+    /**
+     * Finds the smallest key greater than or equal to a given key.
+     * @param key key to compare with
+     * @return the matching key or null if none exists
+     */
+    public T ceiling(T key) {
+        int index = lowerBound(key);
+        return index < size ? key(index) : null;
+    }
+
+    /**
+     * Finds the largest key less than or equal to a given key.
+     * @param key key to compare with
+     * @return the matching key or null if none exists
+     */
+    public T floor(T key) {
+        int index = lowerBound(key);
+        if (index < size && compare(key, index) == 0) {
+            return key(index);
+        }
+        return index > 0 ? key(index - 1) : null;
+    }
+
+    /**
+     * Finds the hash of the keys like {@link MerkleProcedures#hash(Node)} does for a tree, so a snapshot of a tree
+     * has the same hash as the tree. The first call decodes every key and keeps 8 bytes per key for later diffs.
+     * @return the sum of the key hashes
+     */
+    public long contentHash() {
+        return contentHash(MerkleProcedures.DEFAULT_KEY_HASH);
+    }
+
+    /**
+     * Finds the hash of the keys with a given key hash, see {@link #contentHash()}.
+     * Only the sums for the last key hash used are kept, so switching between key hashes decodes every key again.
+     * @param keyHash hashes a key to its contribution, see {@link MerkleProcedures#hash(Node, ToLongFunction)}
+     * @return the sum of the key hashes
+     */
+    public long contentHash(ToLongFunction<? super T> keyHash) {
+        return hash(0, size, keyHash);
+    }
+
+    /**
+     * Builds a balanced tree from the snapshot in linear time, decoding every key once.
+     * @return a new red-black tree holding the keys
+     */
+    public RedBlackTree<T> toTree() {
+        RedBlackTree<T> tree = new RedBlackTree<>();
+        tree.root = SearchTreeProcedures.buildFromSorted(asList(), true, SearchTreeProcedures.naturalOrder());
+        return tree;
+    }
+
+    /** @return a read-only list view of the keys in sorted order, which decodes keys as they are read */
+    public List<T> asList() {
+        class KeyList extends AbstractList<T> implements RandomAccess {
+            @Override
+            public T get(int index) {
+                return key(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        }
+        return new KeyList();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public T next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return key(next++);
+            }
+        };
+    }
+
+    /** @return the sum of the key hashes of the keys from start, inclusive, to end, exclusive */
+    long hash(int start, int end, ToLongFunction<? super T> keyHash) {
+        PrefixHashes<T> prefixHashes = this.prefixHashes;
+        if (prefixHashes == null || prefixHashes.keyHash != keyHash) {
+            long[] sums = new long[size + 1];
+            int index = 0;
+            for (T key : this) {
+                sums[index + 1] = sums[index] + keyHash.applyAsLong(key);
+                index++;
+            }
+            prefixHashes = new PrefixHashes<>(keyHash, sums);
+            this.prefixHashes = prefixHashes;
+        }
+        return prefixHashes.sums[end] - prefixHashes.sums[start];
+    }
+
+    /** Sums of the key hashes before each index, along with the key hash they were made with. */
+    private static final class PrefixHashes<T> {
+        private final ToLongFunction<? super T> keyHash;
+        private final long[] sums;
+
+        PrefixHashes(ToLongFunction<? super T> keyHash, long[] sums) {
+            this.keyHash = keyHash;
+            this.sums = sums;
+        }
+    }
+
+    /** @return the index of the first key greater than a given key, size if there is none */
+    int upperBound(T key) {
+        int index = lowerBound(key);
+        return index < size && compare(key, index) == 0 ? index + 1 : index;
+    }
+
+    /** @return the index of the first key not less than a given key, size if there is none */
+    int lowerBound(T key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(key, middle) > 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int compare(T key, int index) {
+        if (data == null) {
+            return codec.compare(key, segment(index), offset(index), recordWidth);
+        }
+        int start = keyStart(index);
+        return codec.compare(key, data, start, keyStart(index + 1) - start);
+    }
+
+    private int keyStart(int index) {
+        return (int) segment(index).getLong(offset(index));
+    }
+
+    private ByteBuffer segment(int index) {
+        return records[index / recordsPerSegment];
+    }
+
+    private int offset(int index) {
+        return index % recordsPerSegment * recordWidth;
+    }
+}
@@ -4,6 +4,7 @@ import BinaryTree.SearchTree;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -13,11 +14,33 @@ import java.util.List;
  */
 public class InteractiveTree {
 
+    static final String[] MENU = new String[]{
+            "Invalid command. Possible commands: ",
+            "(I)nsert <int>",
+            "(D)elete <int>",
+            "(S)earch <int>",
+            "(P)rint",
+            "p(R)eorder",
+            "i(N)order",
+            "p(O)storder",
+            "(C)reate <int...>",
+            "The create command takes two lines beginning with C. " +
+                    "The first line takes the preorder listing of a tree. " +
+                    "The second line takes the inorder listing of a tree. " +
+                    "It does not replace the current tree, only prints it.",
+            "(E)xit"
+    };
+
     /**
      * An interactive program for testing the binary tree's features. Not every feature is accessible through this.
      * @param args You can supply an input file path and an output file path as separate arguments.
+     *             Starting with --batch runs the file in batch instead, see {@link BatchTree#main(String[])}.
      */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--batch")) {
+            BatchTree.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         BufferedReader input;
         PrintWriter output;
         try {
@@ -139,23 +162,7 @@ public class InteractiveTree {
                         output.flush();
                         return;
                     default:
-                        String[] menu = new String[]{
-                                "Invalid command. Possible commands: ",
-                                "(I)nsert <int>",
-                                "(D)elete <int>",
-                                "(S)earch <int>",
-                                "(P)rint",
-                                "p(R)eorder",
-                                "i(N)order",
-                                "p(O)storder",
-                                "(C)reate <int...>",
-                                "The create command takes two lines beginning with C. " +
-                                        "The first line takes the preorder listing of a tree. " +
-                                        "The second line takes the inorder listing of a tree. " +
-                                        "It does not replace the current tree, only prints it.",
-                                "(E)xit"
-                        };
-                        for (String str : menu) {
+                        for (String str : MENU) {
                             output.println(str);
                         }
                 }
@@ -0,0 +1,205 @@
+package BinaryTree;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * Recovery tests for {@link DurableSearchTree}: reopening, partly written records at the end of the newest log,
+ * damaged records elsewhere, and a crash during a compaction.
+ */
+class DurableSearchTreeTest {
+
+    // the log format, see DurableSearchTree
+    private static final int MAGIC = 0x42544c31;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final byte INSERT = 1;
+    private static final byte DELETE = 2;
+    private static final int LONG_RECORD_SIZE = Integer.BYTES + 1 + Long.BYTES + Integer.BYTES;
+
+    @TempDir
+    Path directory;
+
+    private static DurableSearchTree<Long> open(Path directory, long compactionThreshold) throws IOException {
+        return DurableSearchTree.open(directory, KeyCodec.LONG, Duration.ZERO, DurableSearchTree.DEFAULT_MAX_BATCH,
+                compactionThreshold);
+    }
+
+    /** Inserts 0 to count - 1 and then deletes every third key, and returns the keys left. */
+    private static List<Long> fill(DurableSearchTree<Long> tree, int count) throws IOException {
+        List<Long> expected = new ArrayList<>();
+        for (long key = 0; key < count; key++) {
+            tree.insert(key);
+        }
+        for (long key = 0; key < count; key++) {
+            if (key % 3 == 0) {
+                tree.delete(key);
+            } else {
+                expected.add(key);
+            }
+        }
+        return expected;
+    }
+
+    private static byte[] record(byte operation, long key) {
+        ByteBuffer record = ByteBuffer.allocate(LONG_RECORD_SIZE);
+        record.putInt(1 + Long.BYTES).put(operation).putLong(key);
+        CRC32C checksum = new CRC32C();
+        checksum.update(record.array(), Integer.BYTES, 1 + Long.BYTES);
+        record.putInt((int) checksum.getValue());
+        return record.array();
+    }
+
+    private static void append(Path file, byte[] bytes) throws IOException {
+        Files.write(file, bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static void flipByte(Path file, long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer value = ByteBuffer.allocate(1);
+            channel.read(value, position);
+            value.put(0, (byte) ~value.get(0)).rewind();
+            channel.write(value, position);
+        }
+    }
+
+    @Test
+    void reopenRecoversKeys() throws IOException {
+        List<Long> expected;
+        try (DurableSearchTree<Long> tree = open(directory, DurableSearchTree.DEFAULT_COMPACTION_THRESHOLD)) {
+            expected = fill(tree, 1000);
+        }
+        try (DurableSearchTree<Long> tree = open(directory, DurableSearchTree.DEFAULT_COMPACTION_THRESHOLD)) {
+            assertEquals(expected, tree.sorted());
+            tree.insert(3000L);
+            expected.add(3000L);
+        }
+        try (DurableSearchTree<Long> tree = open(directory, DurableSearchTree.DEFAULT_COMPACTION_THRESHOLD)) {
+            assertEquals(expected, tree.sorted());
+        }
+    }
+
+    @Test
+    void reopenAfterCompactions() throws IOException {
+        List<Long> expected;
+        try (DurableSearchTree<Long> tree = open(directory, 4096)) {
+            expected = fill(tree, 2000);
+        }
+        try (DurableSearchTree<Long> tree = open(directory, 4096)) {
+            assertEquals(expected, tree.sorted());
+        }
+    }
+
+    @Test
+    void partlyWrittenRecordAtTheEndIsDropped() throws IOException {
+        List<Long> expected;
+        try (DurableSearchTree<Long> tree = open(directory, DurableSearchTree.DEFAULT_COMPACTION_THRESHOLD)) {
+            expected = fill(tree, 100);
+        }
+        Path log = directory.resolve("log-0");
+        long size = Files.size(log);
+        byte[] torn = record(INSERT, 500);
+        append(log, Arrays.copyOf(torn, torn.length - 3));
+        try (DurableSearchTree<Long> tree = open(directory, DurableSearchTree.DEFAULT_COMPACTION_THRESHOLD)) {
+            assertEquals(expected, tree.sorted());
+            assertEquals(size, Files.size(log));
+            tree.insert(500L);
+            expected.add(500L);
+        }
+        try (DurableSearchTree<Long> tree = open(directory, DurableSearchTree.DEFAULT_COMPACTION_THRESHOLD)) {
+            assertEquals(expected, tree.sorted());
+        }
+    }
+
+    @Test
+    void recordWithBadChecksumAtTheEndIsDropped() throws IOException {
+        List<Long> expected;
+        try (DurableSearchTree<Long> tree = open(directory, DurableSearchTree.DEFAULT_COMPACTION_THRESHOLD)) {
+            expected = fill(tree, 100);
+        }
+        Path log = directory.resolve("log-0");
+        long size = Files.size(log);
+        byte[] damaged = record(DELETE, 1);
+        damaged[damaged.length - 1] ^= 1;
+        append(log, damaged);
+        try (DurableSearchTree<Long> tree = open(directory, DurableSearchTree.DEFAULT_COMPACTION_THRESHOLD)) {
+            assertEquals(expected, tree.sorted());
+            assertEquals(size, Files.size(log));
+        }
+    }
+
+    @Test
+    void damagedRecordInTheMiddleFailsTheOpen() throws IOException {
+        try (DurableSearchTree<Long> tree = open(directory, DurableSearchTree.DEFAULT_COMPACTION_THRESHOLD)) {
+            fill(tree, 100);
+        }
+        Path log = directory.resolve("log-0");
+        long size = Files.size(log);
+        // a byte of the first key, and then a byte of the first length
+        flipByte(log, HEADER_SIZE + Integer.BYTES + 1);
+        assertThrows(RuntimeException.class,
+                () -> open(directory, DurableSearchTree.DEFAULT_COMPACTION_THRESHOLD));
+        assertEquals(size, Files.size(log));
+        flipByte(log, HEADER_SIZE + Integer.BYTES + 1);
+        flipByte(log, HEADER_SIZE);
+        assertThrows(RuntimeException.class,
+                () -> open(directory, DurableSearchTree.DEFAULT_COMPACTION_THRESHOLD));
+        assertEquals(size, Files.size(log));
+    }
+
+    @Test
+    void crashBetweenNewLogAndSnapshotRename() throws IOException {
+        List<Long> expected;
+        try (DurableSearchTree<Long> tree = open(directory, DurableSearchTree.DEFAULT_COMPACTION_THRESHOLD)) {
+            expected = fill(tree, 100);
+        }
+        // the compaction started log-1 and died while writing snapshot-1
+        Path newLog = directory.resolve("log-1");
+        append(newLog, ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).array());
+        for (long key = 100; key < 150; key++) {
+            append(newLog, record(INSERT, key));
+            expected.add(key);
+        }
+        append(newLog, record(DELETE, 1));
+        expected.remove(Long.valueOf(1));
+        append(directory.resolve("snapshot-1.tmp"), new byte[] {1, 2, 3});
+        try (DurableSearchTree<Long> tree = open(directory, DurableSearchTree.DEFAULT_COMPACTION_THRESHOLD)) {
+            assertEquals(expected, tree.sorted());
+        }
+        assertFalse(Files.exists(directory.resolve("snapshot-1.tmp")));
+        assertTrue(Files.exists(directory.resolve("log-0")));
+        try (DurableSearchTree<Long> tree = open(directory, DurableSearchTree.DEFAULT_COMPACTION_THRESHOLD)) {
+            assertEquals(expected, tree.sorted());
+        }
+    }
+
+    @Test
+    void damagedEndOfAnOlderLogFailsTheOpen() throws IOException {
+        try (DurableSearchTree<Long> tree = open(directory, DurableSearchTree.DEFAULT_COMPACTION_THRESHOLD)) {
+            fill(tree, 100);
+        }
+        Path oldLog = directory.resolve("log-0");
+        byte[] torn = record(INSERT, 500);
+        append(oldLog, Arrays.copyOf(torn, torn.length - 3));
+        long size = Files.size(oldLog);
+        append(directory.resolve("log-1"), ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).array());
+        assertThrows(RuntimeException.class,
+                () -> open(directory, DurableSearchTree.DEFAULT_COMPACTION_THRESHOLD));
+        assertEquals(size, Files.size(oldLog));
+    }
+}
@@ -0,0 +1,194 @@
+package BinaryTree;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * Tests the split, join and set operations of {@link RedBlackTree} against {@link TreeSet},
+ * checking the red-black invariants of every result. Large inputs go through the parallel paths.
+ */
+class RedBlackTreeTest {
+
+    // past ParallelProcedures.PARALLEL_THRESHOLD for the set operations, and the parallel build threshold
+    private static final int LARGE = 200_000;
+
+    /**
+     * Checks the search tree invariants, then that the root is black, no red node has a red child,
+     * and every path from the root to a missing node passes the same number of black nodes.
+     */
+    private static void checkRedBlack(RedBlackTree<Integer> tree) {
+        tree.validate();
+        assertFalse(RedBlackProcedures.isRed(tree.root()), "red root");
+        blackHeight(tree.root());
+    }
+
+    private static int blackHeight(Node<Integer> node) {
+        if (node == null) {
+            return 1;
+        }
+        if (node.isRed()) {
+            assertFalse(RedBlackProcedures.isRed(node.getLeft()) || RedBlackProcedures.isRed(node.getRight()),
+                    "red node with a red child at " + node.getKey());
+        }
+        int left = blackHeight(node.getLeft());
+        assertEquals(left, blackHeight(node.getRight()), "unequal black heights at " + node.getKey());
+        return left + (node.isRed() ? 0 : 1);
+    }
+
+    private static void assertKeys(TreeSet<Integer> expected, RedBlackTree<Integer> tree) {
+        checkRedBlack(tree);
+        assertEquals(expected.size(), tree.size());
+        assertEquals(new ArrayList<>(expected), tree.sorted());
+    }
+
+    /** @return count distinct random keys in [0, bound) */
+    private static TreeSet<Integer> randomKeys(Random random, int count, int bound) {
+        TreeSet<Integer> keys = new TreeSet<>();
+        while (keys.size() < count) {
+            keys.add(random.nextInt(bound));
+        }
+        return keys;
+    }
+
+    /** Builds a tree with fromSorted, or with inserts in random order, so both shapes of tree are covered. */
+    private static RedBlackTree<Integer> tree(TreeSet<Integer> keys, boolean sorted) {
+        if (sorted) {
+            return RedBlackTree.fromSorted(new ArrayList<>(keys));
+        }
+        RedBlackTree<Integer> tree = new RedBlackTree<>();
+        List<Integer> shuffled = new ArrayList<>(keys);
+        Collections.shuffle(shuffled, new Random(keys.size()));
+        for (Integer key : shuffled) {
+            tree.insert(key);
+        }
+        return tree;
+    }
+
+    @Test
+    void fromSortedBuildsValidTrees() {
+        for (int size : new int[] {0, 1, 2, 3, 7, 8, 1000, LARGE}) {
+            TreeSet<Integer> keys = new TreeSet<>();
+            for (int i = 0; i < size; i++) {
+                keys.add(i * 2);
+            }
+            assertKeys(keys, tree(keys, true));
+        }
+        assertThrows(RuntimeException.class, () -> RedBlackTree.fromSorted(new Integer[] {1, 3, 2}));
+    }
+
+    @Test
+    void splitAndJoinKeepTheInvariants() {
+        Random random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            // even keys, so odd keys are free to be pivots
+            TreeSet<Integer> keys = new TreeSet<>();
+            for (Integer key : randomKeys(random, random.nextInt(3000), 100_000)) {
+                keys.add(key * 2);
+            }
+            RedBlackTree<Integer> tree = tree(keys, round % 2 == 0);
+            int at = random.nextInt(200_002) - 1;
+            if (random.nextBoolean() && !keys.isEmpty()) {
+                at = keys.ceiling(at) == null ? keys.first() : keys.ceiling(at);
+            }
+            RedBlackTree<Integer> right = tree.split(at);
+            assertKeys(new TreeSet<>(keys.headSet(at)), tree);
+            assertKeys(new TreeSet<>(keys.tailSet(at)), right);
+
+            int pivot = at | 1;
+            TreeSet<Integer> leftKeys = new TreeSet<>(keys.headSet(pivot));
+            TreeSet<Integer> rightKeys = new TreeSet<>(keys.tailSet(pivot));
+            RedBlackTree<Integer> left = tree(leftKeys, round % 3 == 0);
+            RedBlackTree<Integer> joined = RedBlackTree.join(left, pivot, tree(rightKeys, round % 3 == 1));
+            keys.add(pivot);
+            assertKeys(keys, joined);
+            assertEquals(0, left.size());
+        }
+    }
+
+    @Test
+    void joinsTreesOfVeryDifferentHeights() {
+        TreeSet<Integer> small = new TreeSet<>(List.of(1, 2));
+        TreeSet<Integer> large = new TreeSet<>();
+        for (int i = 10; i < 100_000; i++) {
+            large.add(i);
+        }
+        TreeSet<Integer> expected = new TreeSet<>(large);
+        expected.addAll(small);
+        expected.add(5);
+        assertKeys(expected, RedBlackTree.join(tree(small, false), 5, tree(large, true)));
+
+        expected = new TreeSet<>(large);
+        expected.add(100_000);
+        expected.add(100_001);
+        TreeSet<Integer> last = new TreeSet<>(List.of(100_001));
+        assertKeys(expected, RedBlackTree.join(tree(large, false), 100_000, tree(last, true)));
+        assertThrows(RuntimeException.class,
+                () -> RedBlackTree.join(tree(large, true), 5, tree(small, false)));
+    }
+
+    /** Runs union, intersection and difference on trees of the given sizes and compares with TreeSet. */
+    private static void checkSetOperations(Random random, int firstSize, int secondSize, int bound) {
+        TreeSet<Integer> first = randomKeys(random, firstSize, bound);
+        TreeSet<Integer> second = randomKeys(random, secondSize, bound);
+
+        TreeSet<Integer> union = new TreeSet<>(first);
+        union.addAll(second);
+        assertKeys(union, RedBlackTree.union(tree(first, true), tree(second, false)));
+
+        TreeSet<Integer> intersection = new TreeSet<>(first);
+        intersection.retainAll(second);
+        assertKeys(intersection, RedBlackTree.intersection(tree(first, false), tree(second, true)));
+
+        TreeSet<Integer> difference = new TreeSet<>(first);
+        difference.removeAll(second);
+        assertKeys(difference, RedBlackTree.difference(tree(first, true), tree(second, true)));
+    }
+
+    @Test
+    void setOperationsMatchTreeSet() {
+        Random random = new Random(11);
+        checkSetOperations(random, 0, 0, 10);
+        checkSetOperations(random, 0, 100, 1000);
+        checkSetOperations(random, 100, 0, 1000);
+        for (int round = 0; round < 20; round++) {
+            checkSetOperations(random, random.nextInt(2000), random.nextInt(2000), 4000);
+        }
+    }
+
+    @Test
+    void parallelSetOperationsMatchTreeSet() {
+        Random random = new Random(13);
+        checkSetOperations(random, LARGE, LARGE, 3 * LARGE);
+        checkSetOperations(random, LARGE, 50, 3 * LARGE);
+        checkSetOperations(random, 50, LARGE, 3 * LARGE);
+        // disjoint ranges, so every split on one side leaves the other side whole
+        TreeSet<Integer> low = new TreeSet<>();
+        TreeSet<Integer> high = new TreeSet<>();
+        for (int i = 0; i < LARGE; i++) {
+            low.add(i);
+            high.add(LARGE + i);
+        }
+        TreeSet<Integer> both = new TreeSet<>(low);
+        both.addAll(high);
+        assertKeys(both, RedBlackTree.union(tree(high, true), tree(low, true)));
+        assertKeys(new TreeSet<>(), RedBlackTree.intersection(tree(low, true), tree(high, true)));
+        assertKeys(low, RedBlackTree.difference(tree(low, true), tree(high, false)));
+    }
+
+    @Test
+    void setOperationsRejectMismatchedTrees() {
+        RedBlackTree<Integer> tree = tree(new TreeSet<>(List.of(1, 2, 3)), false);
+        assertThrows(RuntimeException.class, () -> RedBlackTree.union(tree, tree));
+        RedBlackTree<Integer> reversed = new RedBlackTree<>(Comparator.reverseOrder());
+        assertThrows(RuntimeException.class, () -> RedBlackTree.intersection(tree, reversed));
+    }
+}
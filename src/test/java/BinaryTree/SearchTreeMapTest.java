@@ -0,0 +1,119 @@
+package BinaryTree;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Last edited 10/16/2026 <br>
+ * Tests {@link SearchTreeMap} against {@link TreeMap}, with the natural ordering and with comparators.
+ */
+class SearchTreeMapTest {
+
+    /** Applies the same random puts and removes to both maps, checking the results and views along the way. */
+    private static void compareWithTreeMap(NavigableMap<Integer, Integer> map,
+                                           NavigableMap<Integer, Integer> expected) {
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(2000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+            if (i % 1000 == 0) {
+                assertEquals(expected, map);
+                assertEquals(expected.size(), map.size());
+                assertEquals(expected.floorKey(key), map.floorKey(key));
+                assertEquals(expected.higherKey(key), map.higherKey(key));
+                assertEquals(new ArrayList<>(expected.headMap(key, true).entrySet()),
+                        new ArrayList<>(map.headMap(key, true).entrySet()));
+                assertEquals(new ArrayList<>(expected.descendingMap().tailMap(key).keySet()),
+                        new ArrayList<>(map.descendingMap().tailMap(key).keySet()));
+                int to = expected.comparator() == null ? key + 500 : key - 500;
+                assertEquals(expected.subMap(key, to).size(), map.subMap(key, to).size());
+                assertThrows(IllegalArgumentException.class, () -> map.subMap(to, key));
+            }
+        }
+        assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(map.entrySet()));
+    }
+
+    @Test
+    void matchesTreeMap() {
+        compareWithTreeMap(new SearchTreeMap<>(), new TreeMap<>());
+    }
+
+    @Test
+    void matchesTreeMapWithComparator() {
+        SearchTreeMap<Integer, Integer> map = new SearchTreeMap<>(Comparator.reverseOrder());
+        compareWithTreeMap(map, new TreeMap<>(Comparator.reverseOrder()));
+        assertEquals(Comparator.reverseOrder(), map.comparator());
+        assertNull(new SearchTreeMap<Integer, Integer>().comparator());
+    }
+
+    @Test
+    void keysDoNotNeedToBeComparable() {
+        Comparator<int[]> order = Comparator.<int[]>comparingInt(key -> key[0]).thenComparingInt(key -> key[1]);
+        SearchTreeMap<int[], String> map = new SearchTreeMap<>(order);
+        map.put(new int[] {2, 1}, "c");
+        map.put(new int[] {1, 2}, "b");
+        map.put(new int[] {1, 1}, "a");
+        assertEquals("b", map.put(new int[] {1, 2}, "B"));
+        assertEquals(3, map.size());
+        assertEquals("a", map.firstEntry().getValue());
+        assertEquals("B", map.get(new int[] {1, 2}));
+        assertEquals(List.of("a", "B", "c"), new ArrayList<>(map.values()));
+    }
+
+    @Test
+    void copiesSortedMapWithItsComparator() {
+        TreeMap<String, Integer> source = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        source.put("b", 2);
+        source.put("A", 1);
+        source.put("c", 3);
+        SearchTreeMap<String, Integer> copy = new SearchTreeMap<>(source);
+        assertEquals(String.CASE_INSENSITIVE_ORDER, copy.comparator());
+        assertEquals(List.of("A", "b", "c"), new ArrayList<>(copy.keySet()));
+        assertEquals(1, copy.get("a"));
+    }
+
+    @Test
+    void iteratorsAreFailFast() {
+        SearchTreeMap<Integer, Integer> map = new SearchTreeMap<>();
+        for (int i = 0; i < 10; i++) {
+            map.put(i, i);
+        }
+        Iterator<Integer> keys = map.keySet().iterator();
+        keys.next();
+        map.put(3, 30); // only replaces a value
+        keys.next();
+        map.put(20, 20);
+        assertThrows(ConcurrentModificationException.class, keys::next);
+
+        Iterator<Map.Entry<Integer, Integer>> entries = map.entrySet().iterator();
+        while (entries.hasNext()) {
+            if (entries.next().getKey() % 2 == 0) {
+                entries.remove();
+            }
+        }
+        assertEquals(List.of(1, 3, 5, 7, 9), new ArrayList<>(map.keySet()));
+        Iterator<Integer> cleared = map.keySet().iterator();
+        map.clear();
+        assertThrows(ConcurrentModificationException.class, cleared::next);
+    }
+
+    @Test
+    void clearResetsTheTree() {
+        SearchTreeMap<Integer, Integer> map = new SearchTreeMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(5));
+        map.put(5, 5);
+        assertEquals(Map.of(5, 5), map);
+    }
+}